@@ -0,0 +1,100 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import ch.sportchef.events.boundary.EventNotFoundException;
+import ch.sportchef.events.controller.EventConflictException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// error responses for expected outcomes, compared with exceptions with stack traces and a JSON builder per error
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class RuntimeExceptionMapperBenchmark {
+
+    private static final String CONFLICT_MESSAGE = "You tried to update an event that was modified concurrently!";
+
+    // frames on the stack when the exception is created, a request in the server has quite a lot of them
+    @Param({"10", "100"})
+    private int stackDepth;
+
+    private final RuntimeExceptionMapper runtimeExceptionMapper = new RuntimeExceptionMapper();
+
+    @Benchmark
+    public Response notFound() {
+        final long eventId = ThreadLocalRandom.current().nextLong(1_000_000);
+        return runtimeExceptionMapper.toResponse(atDepth(stackDepth, () -> new EventNotFoundException(eventId)));
+    }
+
+    @Benchmark
+    public Response notFoundWithStackTrace() {
+        final long eventId = ThreadLocalRandom.current().nextLong(1_000_000);
+        return builderResponse(atDepth(stackDepth, () -> new NotFoundException(
+                String.format("Event with id '%d' not found.", eventId))));
+    }
+
+    @Benchmark
+    public Response conflict() {
+        return runtimeExceptionMapper.toResponse(atDepth(stackDepth, () -> new EventConflictException(CONFLICT_MESSAGE)));
+    }
+
+    @Benchmark
+    public Response conflictWithStackTrace() {
+        return builderResponse(atDepth(stackDepth, () -> new ConcurrentModificationException(CONFLICT_MESSAGE)));
+    }
+
+    private static RuntimeException atDepth(final int depth, final Supplier<RuntimeException> exception) {
+        return depth <= 1 ? exception.get() : atDepth(depth - 1, exception);
+    }
+
+    // how the errors were mapped before
+    private static Response builderResponse(final RuntimeException e) {
+        final Response.StatusType status = e instanceof NotFoundException
+                ? Response.Status.NOT_FOUND : Response.Status.CONFLICT;
+        final JsonObject entity = Json.createObjectBuilder()
+                .add("status", status.getStatusCode())
+                .add("message", e.getMessage())
+                .build();
+        return Response.status(status)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(entity).build();
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventRepositoryBenchmark {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2017, 1, 1);
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private EventRepository eventRepository;
+    private long firstEventId;
+    private long nextEventId;
+
+    // a fresh repository per iteration keeps the size stable for the benchmarks that add events
+    @Setup(Level.Iteration)
+    public void setup() {
+        eventRepository = new EventRepository();
+        for (int i = 0; i < size; i++) {
+            eventRepository.create(createEvent(i));
+        }
+        firstEventId = 1L;
+        nextEventId = size + 1L;
+    }
+
+    @Benchmark
+    public Event create() {
+        return eventRepository.create(createEvent(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Event> readAll() {
+        return eventRepository.read();
+    }
+
+    @Benchmark
+    public Optional<Event> readById() {
+        return eventRepository.read(randomEventId());
+    }
+
+    @Benchmark
+    public Event update() {
+        final Event event = eventRepository.read(randomEventId()).get();
+        return eventRepository.update(event.toBuilder()
+                .title("Updated Event")
+                .build());
+    }
+
+    // every deleted event is replaced by a new one to keep the size stable
+    @Benchmark
+    public Event delete() {
+        final Event deleted = eventRepository.delete(firstEventId++);
+        eventRepository.create(createEvent((int) (nextEventId++ % size)));
+        return deleted;
+    }
+
+    private long randomEventId() {
+        return ThreadLocalRandom.current().nextLong(firstEventId, nextEventId);
+    }
+
+    static Event createEvent(final int i) {
+        return Event.builder()
+                .title("Event " + i)
+                .location("Location " + i % 100)
+                .date(FIRST_DATE.plusDays(i % 3650))
+                .time(LocalTime.ofSecondOfDay((i * 60L) % 86400))
+                .build();
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// runs against a real persistence store, airomem keeps it below the home directory of the user
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventServiceBenchmark {
+
+    private static final int PREFILL_BATCH_SIZE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Path userHome;
+    private String originalUserHome;
+    private EventService eventService;
+    private final AtomicLong firstEventId = new AtomicLong();
+    private final AtomicLong nextEventId = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        userHome = Files.createTempDirectory("sportchef-events-benchmark");
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+        eventService = new EventService();
+        eventService.setupResources();
+        final List<EventOperation> operations = new ArrayList<>(PREFILL_BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            operations.add(EventOperation.builder()
+                    .type(EventOperation.Type.CREATE)
+                    .event(EventRepositoryBenchmark.createEvent(i))
+                    .build());
+            if (operations.size() == PREFILL_BATCH_SIZE || i == size - 1) {
+                eventService.apply(operations);
+                operations.clear();
+            }
+        }
+        firstEventId.set(1L);
+        nextEventId.set(size + 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        eventService.cleanupResources();
+        System.setProperty("user.home", originalUserHome);
+        try (Stream<Path> paths = Files.walk(userHome)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public Event create() {
+        final Event event = eventService.create(EventRepositoryBenchmark.createEvent(
+                ThreadLocalRandom.current().nextInt(size)));
+        nextEventId.incrementAndGet();
+        return event;
+    }
+
+    @Benchmark
+    public List<Event> readAll() {
+        return eventService.read();
+    }
+
+    @Benchmark
+    public Optional<Event> readById() {
+        return eventService.read(randomEventId());
+    }
+
+    @Benchmark
+    public EventOperationResult update() {
+        final Event event = eventService.read(randomEventId()).get();
+        return eventService.update(event.toBuilder()
+                .title("Updated Event")
+                .build());
+    }
+
+    // every deleted event is replaced by a new one to keep the size stable
+    @Benchmark
+    public EventOperationResult delete() {
+        final EventOperationResult deleted = eventService.delete(firstEventId.getAndIncrement());
+        create();
+        return deleted;
+    }
+
+    private long randomEventId() {
+        return ThreadLocalRandom.current().nextLong(firstEventId.get(), nextEventId.get());
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// counts durations in power of two buckets, recording doesn't allocate
+class LatencyHistogram {
+
+    private static final int MIN_SHIFT = 10; // up to 1 µs
+    private static final int MAX_SHIFT = 35; // up to 34 s
+    private static final String[] UPPER_BOUNDS = new String[MAX_SHIFT - MIN_SHIFT + 2];
+
+    static {
+        for (int i = 0; i < UPPER_BOUNDS.length - 1; i++) {
+            UPPER_BOUNDS[i] = BigDecimal.valueOf(1L << (MIN_SHIFT + i), 9).stripTrailingZeros().toPlainString();
+        }
+        UPPER_BOUNDS[UPPER_BOUNDS.length - 1] = "+Inf"; //NON-NLS
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS.length);
+    private final LongAdder sumNanos = new LongAdder();
+
+    void record(final long nanos) {
+        final long duration = Math.max(1, nanos);
+        final int shift = Long.SIZE - Long.numberOfLeadingZeros(duration - 1); // rounded up log2
+        counts.incrementAndGet(Math.min(Math.max(shift - MIN_SHIFT, 0), UPPER_BOUNDS.length - 1));
+        sumNanos.add(duration);
+    }
+
+    long count() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    // the cumulative buckets, sum and count in the Prometheus text format, labels may be empty
+    void write(@NonNull final StringBuilder out, @NonNull final String name, @NonNull final String labels) {
+        final String separator = labels.isEmpty() ? "" : ","; //NON-NLS
+        long count = 0;
+        for (int i = 0; i < UPPER_BOUNDS.length; i++) {
+            count += counts.get(i);
+            out.append(name).append("_bucket{").append(labels).append(separator) //NON-NLS
+                    .append("le=\"").append(UPPER_BOUNDS[i]).append("\"} ").append(count).append('\n'); //NON-NLS
+        }
+        final String braced = labels.isEmpty() ? "" : "{" + labels + "}"; //NON-NLS
+        out.append(name).append("_sum").append(braced).append(' ') //NON-NLS
+                .append(BigDecimal.valueOf(sumNanos.sum(), 9).toPlainString()).append('\n');
+        out.append(name).append("_count").append(braced).append(' ').append(count).append('\n'); //NON-NLS
+    }
+
+}
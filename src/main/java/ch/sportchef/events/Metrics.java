@@ -0,0 +1,237 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// request timings and the state of the stores of this instance, scraped by Prometheus from the metrics endpoint
+public class Metrics {
+
+    private static final Metrics INSTANCE = new Metrics();
+    private static final int STATUSES = 600;
+
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Endpoint unmatched = new Endpoint("unmatched"); //NON-NLS
+    private final AtomicLongArray errors = new AtomicLongArray(STATUSES);
+    private final LatencyHistogram storeQueries = new LatencyHistogram();
+    private final LatencyHistogram storePersists = new LatencyHistogram();
+    private final LatencyHistogram storeExecutions = new LatencyHistogram();
+    private final LatencyHistogram storeJournals = new LatencyHistogram();
+    // prevayler executes a command on the thread that persists it, -1 outside of a persist
+    private final ThreadLocal<long[]> persistExecutionNanos = ThreadLocal.withInitial(() -> new long[] {-1});
+    private final Map<String, Store> stores = new ConcurrentSkipListMap<>();
+    private MetricsLogger logger;
+
+    Metrics() {
+    }
+
+    public static Metrics instance() {
+        return INSTANCE;
+    }
+
+    // the resource method is null if no resource matched the request
+    public void recordRequest(final Method resourceMethod, final int status, final long nanos) {
+        final Endpoint endpoint = resourceMethod == null ? unmatched : endpoints.computeIfAbsent(resourceMethod,
+                method -> new Endpoint(method.getDeclaringClass().getSimpleName() + "." + method.getName())); //NON-NLS
+        endpoint.durations.record(nanos);
+        endpoint.statuses.incrementAndGet(statusIndex(status));
+    }
+
+    public void recordError(final int status) {
+        errors.incrementAndGet(statusIndex(status));
+    }
+
+    public void recordStoreQuery(final long nanos) {
+        storeQueries.record(nanos);
+    }
+
+    public void startStorePersist() {
+        persistExecutionNanos.get()[0] = 0;
+    }
+
+    // commands replayed from the journal are not counted
+    public void recordStoreExecution(final long nanos) {
+        final long[] executionNanos = persistExecutionNanos.get();
+        if (executionNanos[0] >= 0) {
+            executionNanos[0] += nanos;
+            storeExecutions.record(nanos);
+        }
+    }
+
+    // whatever the command didn't spend executing was spent journaling it
+    public void recordStorePersist(final long nanos) {
+        final long[] executionNanos = persistExecutionNanos.get();
+        storePersists.record(nanos);
+        storeJournals.record(nanos - Math.max(0, executionNanos[0]));
+        executionNanos[0] = -1;
+    }
+
+    void registerStore(@NonNull final String name, @NonNull final Path store, final long loadNanos) {
+        stores.put(name, new Store(name, store, loadNanos));
+        synchronized (this) {
+            if (logger == null) {
+                logger = MetricsLogger.start(this);
+            }
+        }
+    }
+
+    // stops the thread of the logger on undeploy, the next store registered starts it again
+    public synchronized void stopLogging() {
+        if (logger != null) {
+            logger.stop();
+            logger = null;
+        }
+    }
+
+    LatencyHistogram getStorePersists() {
+        return storePersists;
+    }
+
+    LatencyHistogram getStoreExecutions() {
+        return storeExecutions;
+    }
+
+    LatencyHistogram getStoreJournals() {
+        return storeJournals;
+    }
+
+    Collection<Store> getStores() {
+        return stores.values();
+    }
+
+    public String scrape() {
+        final StringBuilder out = new StringBuilder();
+        final Endpoint[] sortedEndpoints = endpoints.values().stream()
+                .sorted(Comparator.comparing(endpoint -> endpoint.name))
+                .toArray(Endpoint[]::new);
+
+        out.append("# HELP sportchef_events_request_duration_seconds Request latency by endpoint.\n"); //NON-NLS
+        out.append("# TYPE sportchef_events_request_duration_seconds histogram\n"); //NON-NLS
+        for (final Endpoint endpoint : sortedEndpoints) {
+            endpoint.durations.write(out, "sportchef_events_request_duration_seconds", endpoint.labels); //NON-NLS
+        }
+        unmatched.durations.write(out, "sportchef_events_request_duration_seconds", unmatched.labels); //NON-NLS
+
+        out.append("# HELP sportchef_events_requests_total Requests by endpoint and status.\n"); //NON-NLS
+        out.append("# TYPE sportchef_events_requests_total counter\n"); //NON-NLS
+        for (final Endpoint endpoint : sortedEndpoints) {
+            writeStatuses(out, "sportchef_events_requests_total", endpoint.labels + ",", endpoint.statuses); //NON-NLS
+        }
+        writeStatuses(out, "sportchef_events_requests_total", unmatched.labels + ",", unmatched.statuses); //NON-NLS
+
+        out.append("# HELP sportchef_events_errors_total Exceptions mapped to error responses by status.\n"); //NON-NLS
+        out.append("# TYPE sportchef_events_errors_total counter\n"); //NON-NLS
+        writeStatuses(out, "sportchef_events_errors_total", "", errors); //NON-NLS
+
+        out.append("# HELP sportchef_events_store_duration_seconds Queries of and journaled commands to the stores.\n"); //NON-NLS
+        out.append("# TYPE sportchef_events_store_duration_seconds histogram\n"); //NON-NLS
+        storeQueries.write(out, "sportchef_events_store_duration_seconds", "operation=\"query\""); //NON-NLS
+        storePersists.write(out, "sportchef_events_store_duration_seconds", "operation=\"persist\""); //NON-NLS
+        storeExecutions.write(out, "sportchef_events_store_duration_seconds", "operation=\"execute\""); //NON-NLS
+        storeJournals.write(out, "sportchef_events_store_duration_seconds", "operation=\"journal\""); //NON-NLS
+
+        writeStores(out);
+        return out.toString();
+    }
+
+    private void writeStores(@NonNull final StringBuilder out) {
+        final StringBuilder journalFiles = new StringBuilder(
+                "# HELP sportchef_events_store_journal_files Journal files still needed to load a store.\n" //NON-NLS
+                        + "# TYPE sportchef_events_store_journal_files gauge\n"); //NON-NLS
+        final StringBuilder journalBytes = new StringBuilder(
+                "# HELP sportchef_events_store_journal_bytes Size of the journal files still needed to load a store.\n" //NON-NLS
+                        + "# TYPE sportchef_events_store_journal_bytes gauge\n"); //NON-NLS
+        final StringBuilder snapshotBytes = new StringBuilder(
+                "# HELP sportchef_events_store_snapshot_bytes Size of the latest snapshot of a store.\n" //NON-NLS
+                        + "# TYPE sportchef_events_store_snapshot_bytes gauge\n"); //NON-NLS
+        final StringBuilder snapshotTime = new StringBuilder(
+                "# HELP sportchef_events_store_snapshot_timestamp_seconds When the latest snapshot was written.\n" //NON-NLS
+                        + "# TYPE sportchef_events_store_snapshot_timestamp_seconds gauge\n"); //NON-NLS
+        final StringBuilder loadDuration = new StringBuilder(
+                "# HELP sportchef_events_store_load_duration_seconds Loading the snapshot and replaying the journal on startup.\n" //NON-NLS
+                        + "# TYPE sportchef_events_store_load_duration_seconds gauge\n"); //NON-NLS
+        for (final Store store : stores.values()) {
+            final String labels = "{store=\"" + store.getName() + "\"} "; //NON-NLS
+            loadDuration.append("sportchef_events_store_load_duration_seconds").append(labels) //NON-NLS
+                    .append(BigDecimal.valueOf(store.getLoadNanos(), 9).toPlainString()).append('\n');
+            final StoreContent content;
+            try {
+                content = StoreContent.scan(store.getPath());
+            } catch (final IOException e) {
+                continue; // the files are probably being pruned, the next scrape will have them
+            }
+            journalFiles.append("sportchef_events_store_journal_files").append(labels) //NON-NLS
+                    .append(content.getJournalFiles()).append('\n');
+            journalBytes.append("sportchef_events_store_journal_bytes").append(labels) //NON-NLS
+                    .append(content.getJournalBytes()).append('\n');
+            snapshotBytes.append("sportchef_events_store_snapshot_bytes").append(labels) //NON-NLS
+                    .append(content.getSnapshotBytes()).append('\n');
+            snapshotTime.append("sportchef_events_store_snapshot_timestamp_seconds").append(labels) //NON-NLS
+                    .append(BigDecimal.valueOf(content.getSnapshotMillis(), 3).toPlainString()).append('\n');
+        }
+        out.append(journalFiles).append(journalBytes).append(snapshotBytes).append(snapshotTime).append(loadDuration);
+    }
+
+    private static void writeStatuses(@NonNull final StringBuilder out, @NonNull final String name,
+                                      @NonNull final String labelPrefix, @NonNull final AtomicLongArray statuses) {
+        for (int status = 0; status < STATUSES; status++) {
+            final long count = statuses.get(status);
+            if (count > 0) {
+                out.append(name).append('{').append(labelPrefix)
+                        .append("status=\"").append(status).append("\"} ").append(count).append('\n'); //NON-NLS
+            }
+        }
+    }
+
+    // unknown status codes are counted as 0
+    private static int statusIndex(final int status) {
+        return status >= 0 && status < STATUSES ? status : 0;
+    }
+
+    @Value
+    static class Store {
+        private String name;
+        private Path path;
+        private long loadNanos;
+    }
+
+    private static class Endpoint {
+        private final String name;
+        private final String labels;
+        private final LatencyHistogram durations = new LatencyHistogram();
+        private final AtomicLongArray statuses = new AtomicLongArray(STATUSES);
+
+        private Endpoint(@NonNull final String name) {
+            this.name = name;
+            this.labels = "endpoint=\"" + name + "\""; //NON-NLS
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import lombok.NonNull;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+// times every request, suspended requests until they are resumed
+@Provider
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String START_PROPERTY = MetricsFilter.class.getName() + ".start"; //NON-NLS
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(@NonNull final ContainerRequestContext requestContext) {
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(@NonNull final ContainerRequestContext requestContext,
+                       @NonNull final ContainerResponseContext responseContext) {
+        final Object start = requestContext.getProperty(START_PROPERTY);
+        if (start != null) {
+            Metrics.instance().recordRequest(resourceInfo.getResourceMethod(), responseContext.getStatus(),
+                    System.nanoTime() - (Long) start);
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// logs the persistence metrics now and then, to tell whether the disk or the CPU limits the writes
+@Slf4j
+class MetricsLogger {
+
+    static final String METRICS_LOG_INTERVAL_PROPERTY = "sportchef.events.metricsLogInterval"; //NON-NLS
+
+    private static final long DEFAULT_METRICS_LOG_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    private final Metrics metrics;
+    private long persists;
+    private long executionNanos;
+    private long journalNanos;
+    private ScheduledExecutorService executor;
+
+    MetricsLogger(@NonNull final Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    static MetricsLogger start(@NonNull final Metrics metrics) {
+        final MetricsLogger logger = new MetricsLogger(metrics);
+        final long interval = Long.getLong(METRICS_LOG_INTERVAL_PROPERTY, DEFAULT_METRICS_LOG_INTERVAL);
+        if (interval <= 0) {
+            log.info("Logging the persistence metrics is disabled."); //NON-NLS
+            return logger;
+        }
+        logger.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "persistence-metrics"); //NON-NLS
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.executor.scheduleAtFixedRate(logger::log, interval, interval, TimeUnit.MILLISECONDS);
+        return logger;
+    }
+
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // the stores as they are now and the commands since the last call
+    void log() {
+        for (final Metrics.Store store : metrics.getStores()) {
+            try {
+                final StoreContent content = StoreContent.scan(store.getPath());
+                log.info("Entity '{}' has {} journal files with {} bytes and a snapshot of {} bytes from {} ms ago.", //NON-NLS
+                        store.getName(), content.getJournalFiles(), content.getJournalBytes(), content.getSnapshotBytes(),
+                        content.getSnapshotMillis() > 0 ? System.currentTimeMillis() - content.getSnapshotMillis() : "-");
+            } catch (final IOException e) {
+                log.warn("Could not scan the persistence store '{}'.", store.getPath(), e); //NON-NLS
+            }
+        }
+        final long currentPersists = metrics.getStorePersists().count();
+        final long currentExecutionNanos = metrics.getStoreExecutions().sumNanos();
+        final long currentJournalNanos = metrics.getStoreJournals().sumNanos();
+        final long newPersists = currentPersists - persists;
+        if (newPersists > 0) {
+            log.info("Persisted {} commands, executing took {} µs and journaling {} µs on average.", //NON-NLS
+                    newPersists,
+                    TimeUnit.NANOSECONDS.toMicros((currentExecutionNanos - executionNanos) / newPersists),
+                    TimeUnit.NANOSECONDS.toMicros((currentJournalNanos - journalNanos) / newPersists));
+        }
+        persists = currentPersists;
+        executionNanos = currentExecutionNanos;
+        journalNanos = currentJournalNanos;
+    }
+
+}
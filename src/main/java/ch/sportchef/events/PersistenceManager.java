@@ -17,25 +17,141 @@
  */
 package ch.sportchef.events;
 
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import pl.setblack.airomem.core.SimpleController;
+import pl.setblack.airomem.core.disk.PersistenceDiskHelper;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @Slf4j
 @UtilityClass
 public class PersistenceManager {
 
+    static final String PERSISTENCE_ROOT_PROPERTY = "sportchef.events.persistenceRoot"; //NON-NLS
+    static final String PERSISTENCE_ROOT_VARIABLE = "SPORTCHEF_EVENTS_PERSISTENCE_ROOT"; //NON-NLS
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+    private static final Pattern TENANT = Pattern.compile("[A-Za-z0-9_-]+"); //NON-NLS
+
     public static <T extends Serializable> SimpleController<T> createSimpleController(
             final Class<? extends Serializable> clazz, final Supplier<T> constructor) {
-        final String dir = String.format(".sportchef%sevents%s%s", //NON-NLS
-                File.separator, File.separator, clazz.getName());
+        return load(clazz.getName(), persistenceRoot().resolve(clazz.getName()), constructor);
+    }
+
+    // every tenant gets its own store and journal below the persistence root
+    public static <T extends Serializable> SimpleController<T> createSimpleController(
+            final Class<? extends Serializable> clazz, @NonNull final String tenant, final Supplier<T> constructor) {
+        return load(name(clazz, tenant), tenantStore(clazz, tenant), constructor);
+    }
+
+    // follows the store another process writes below the same persistence root
+    public static <T extends Serializable> ReplicaController<T> createReplicaController(
+            final Class<? extends Serializable> clazz, final Supplier<T> constructor) {
+        return replicate(clazz.getName(), persistenceRoot().resolve(clazz.getName()), constructor);
+    }
+
+    public static <T extends Serializable> ReplicaController<T> createReplicaController(
+            final Class<? extends Serializable> clazz, @NonNull final String tenant, final Supplier<T> constructor) {
+        return replicate(name(clazz, tenant), tenantStore(clazz, tenant), constructor);
+    }
+
+    static Path persistenceRoot() {
+        final String root = System.getProperty(PERSISTENCE_ROOT_PROPERTY, System.getenv(PERSISTENCE_ROOT_VARIABLE));
+        return root != null
+                ? Paths.get(root).toAbsolutePath()
+                : PersistenceDiskHelper.calcUserPath(String.format(".sportchef%sevents", File.separator)); //NON-NLS
+    }
+
+    private static String name(@NonNull final Class<? extends Serializable> clazz, @NonNull final String tenant) {
+        return String.format("%s@%s", clazz.getName(), tenant); //NON-NLS
+    }
+
+    private static Path tenantStore(@NonNull final Class<? extends Serializable> clazz, @NonNull final String tenant) {
+        if (!TENANT.matcher(tenant).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid tenant '%s'!", tenant)); //NON-NLS
+        }
+        return persistenceRoot().resolve(tenant).resolve(clazz.getName());
+    }
+
+    private static <T extends Serializable> ReplicaController<T> replicate(
+            @NonNull final String name, @NonNull final Path store, final Supplier<T> constructor) {
+        log.info("Replicating persistence store '{}' for entity '{}'.", //NON-NLS
+                store, name);
+        final long loadStart = System.nanoTime();
+        try {
+            final ReplicaController<T> replica = ReplicaController.start(name, store, constructor);
+            log.info("Loaded snapshot and journal of the replica of entity '{}' in {} ms.", //NON-NLS
+                    name, millisSince(loadStart));
+            Metrics.instance().registerStore(name, store, System.nanoTime() - loadStart);
+            return replica;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T extends Serializable> SimpleController<T> load(
+            @NonNull final String name, @NonNull final Path store, final Supplier<T> constructor) {
         log.info("Using persistence store '{}' for entity '{}'.", //NON-NLS
-                dir, clazz.getName());
-        return SimpleController.loadOptional(dir, constructor);
+                store, name);
+
+        // airomem resolves every store below its own folder in the user home
+        final Path airomemFolder = PersistenceDiskHelper.calcUserPath("");
+        try {
+            Files.createDirectories(airomemFolder);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final String dir = airomemFolder.relativize(store).toString();
+
+        final long scanStart = System.nanoTime();
+        try {
+            final StoreContent content = StoreContent.scan(store);
+            log.info("Found a snapshot of {} bytes and {} journal files with {} bytes for entity '{}' in {} ms.", //NON-NLS
+                    content.getSnapshotBytes(), content.getJournalFiles(), content.getJournalBytes(),
+                    name, millisSince(scanStart));
+        } catch (final IOException e) {
+            log.warn("Could not scan the persistence store '{}'.", store, e); //NON-NLS
+        }
+
+        // the snapshot is loaded and the journal replayed in one go, report that we are still alive
+        final long loadStart = System.nanoTime();
+        final ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "persistence-progress"); //NON-NLS
+            thread.setDaemon(true);
+            return thread;
+        });
+        progress.scheduleAtFixedRate(() -> log.info("Still loading entity '{}' after {} ms.", //NON-NLS
+                name, millisSince(loadStart)),
+                PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        try {
+            final SimpleController<T> controller = SimpleController.loadOptional(dir, constructor);
+            log.info("Loaded snapshot and replayed journal of entity '{}' in {} ms.", //NON-NLS
+                    name, millisSince(loadStart));
+            Metrics.instance().registerStore(name, store, System.nanoTime() - loadStart);
+            SnapshotScheduler.start(name, controller, store);
+            return controller;
+        } finally {
+            progress.shutdownNow();
+        }
+    }
+
+    private static long millisSince(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.prevayler.foundation.Chunk;
+import org.prevayler.foundation.Chunking;
+import org.prevayler.foundation.serialization.JavaSerializer;
+import org.prevayler.foundation.serialization.Serializer;
+import org.prevayler.implementation.PrevaylerDirectory;
+import org.prevayler.implementation.TransactionTimestamp;
+import pl.setblack.airomem.core.impl.RoyalFoodTester;
+import pl.setblack.airomem.core.kryo.KryoSerializer;
+import pl.setblack.airomem.data.DataRoot;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// read-only copy of a store owned by another process: loads the latest snapshot and keeps
+// applying the transactions the owner appends to its journals, see PersistenceManager
+@Slf4j
+public class ReplicaController<T extends Serializable> implements AutoCloseable {
+
+    static final String REPLICA_POLL_INTERVAL_PROPERTY = "sportchef.events.replicaPollInterval"; //NON-NLS
+
+    private static final long DEFAULT_REPLICA_POLL_INTERVAL = 1000;
+    private static final String JOURNAL_SUFFIX = "journal"; //NON-NLS
+
+    private final String name;
+    private final PrevaylerDirectory directory;
+    private final Supplier<T> constructor;
+    // the same serializer airomem uses to write the journal
+    private final Serializer journalSerializer = new KryoSerializer();
+
+    private volatile RoyalFoodTester<DataRoot<T, T>> system;
+    private long nextTransaction;
+    private File journal;
+    private long journalOffset;
+    private ScheduledExecutorService executor;
+    private volatile boolean open = true;
+
+    ReplicaController(@NonNull final String name, @NonNull final Path store, @NonNull final Supplier<T> constructor)
+            throws IOException, ClassNotFoundException {
+        this.name = name;
+        this.directory = new PrevaylerDirectory(store.toFile());
+        this.constructor = constructor;
+        loadSnapshot();
+        update();
+    }
+
+    static <T extends Serializable> ReplicaController<T> start(@NonNull final String name, @NonNull final Path store,
+                                                               @NonNull final Supplier<T> constructor)
+            throws IOException, ClassNotFoundException {
+        final ReplicaController<T> replica = new ReplicaController<>(name, store, constructor);
+        final long pollInterval = Long.getLong(REPLICA_POLL_INTERVAL_PROPERTY, DEFAULT_REPLICA_POLL_INTERVAL);
+        replica.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "persistence-replica"); //NON-NLS
+            thread.setDaemon(true);
+            return thread;
+        });
+        replica.executor.scheduleWithFixedDelay(replica::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        return replica;
+    }
+
+    public T readOnly() {
+        return system.getFoodTester().getDataObject();
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // applies the transactions appended since the last update and returns their number
+    synchronized int update() throws IOException, ClassNotFoundException {
+        int applied = 0;
+        while (true) {
+            if (journal != null && journal.exists()) {
+                applied += readJournal();
+            }
+            // the owner starts a new journal with the next transaction whenever it is restarted
+            final File nextJournal = directory.journalFile(nextTransaction, JOURNAL_SUFFIX);
+            if (nextJournal.exists() && !nextJournal.equals(journal)) {
+                journal = nextJournal;
+                journalOffset = 0;
+                continue;
+            }
+            // the journal may have been pruned after a snapshot of the owner covered it
+            final File snapshot = directory.latestSnapshot();
+            if ((journal == null || !journal.exists()) && snapshot != null
+                    && PrevaylerDirectory.snapshotVersion(snapshot) >= nextTransaction) {
+                loadSnapshot();
+                continue;
+            }
+            return applied;
+        }
+    }
+
+    private void poll() {
+        if (!open) {
+            return;
+        }
+        try {
+            final int applied = update();
+            if (applied > 0) {
+                log.debug("Applied {} transactions to the replica of entity '{}'.", applied, name); //NON-NLS
+            }
+        } catch (final IOException | ClassNotFoundException | RuntimeException e) {
+            log.error("Updating the replica of entity '{}' failed.", name, e); //NON-NLS
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadSnapshot() throws IOException, ClassNotFoundException {
+        final long start = System.nanoTime();
+        final File snapshot = directory.latestSnapshot();
+        if (snapshot == null) {
+            system = RoyalFoodTester.of(new DataRoot<>(constructor.get()));
+            nextTransaction = 1;
+        } else {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(snapshot))) {
+                system = (RoyalFoodTester<DataRoot<T, T>>) new JavaSerializer().readObject(in);
+            }
+            nextTransaction = PrevaylerDirectory.snapshotVersion(snapshot) + 1;
+        }
+        journal = directory.findInitialJournalFile(nextTransaction);
+        journalOffset = 0;
+        log.info("Loaded the snapshot of the replica of entity '{}' up to transaction {} in {} ms.", //NON-NLS
+                name, nextTransaction - 1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private int readJournal() throws IOException {
+        int applied = 0;
+        try (InputStream file = new FileInputStream(journal)) {
+            ByteStreams.skipFully(file, journalOffset);
+            final CountingInputStream in = new CountingInputStream(new BufferedInputStream(file));
+            final long start = journalOffset;
+            while (true) {
+                final Chunk chunk;
+                try {
+                    chunk = Chunking.readChunk(in);
+                } catch (final IOException e) {
+                    break; // the owner is still writing this transaction, try again later
+                }
+                if (chunk == null) {
+                    break;
+                }
+                final TransactionTimestamp timestamp = TransactionTimestamp.fromChunk(chunk);
+                if (timestamp.systemVersion() > nextTransaction) {
+                    throw new IOException(String.format("Transaction %d is missing in journal '%s'.", //NON-NLS
+                            nextTransaction, journal));
+                }
+                if (timestamp.systemVersion() == nextTransaction) {
+                    timestamp.capsule().executeOn(system, timestamp.executionTime(), journalSerializer);
+                    nextTransaction++;
+                    applied++;
+                }
+                journalOffset = start + in.getCount();
+            }
+        }
+        return applied;
+    }
+
+}
@@ -17,12 +17,13 @@
  */
 package ch.sportchef.events;
 
+import ch.sportchef.events.controller.ReadOnlyReplicaException;
+import ch.sportchef.events.controller.StartupFailedException;
+import ch.sportchef.events.controller.StartupInProgressException;
 import lombok.NonNull;
-import lombok.Value;
 
-import javax.json.Json;
-import javax.json.JsonObject;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
@@ -30,44 +31,96 @@ import javax.ws.rs.ext.Provider;
 import java.util.ConcurrentModificationException;
 
 import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.FORBIDDEN;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 
 @Provider
 public class RuntimeExceptionMapper implements ExceptionMapper<RuntimeException> {
 
+    // the JSON up to the message for every known status, only the message is serialized per error
+    private static final String[] TEMPLATES = new String[600];
+
+    static {
+        for (int statusCode = 0; statusCode < TEMPLATES.length; statusCode++) {
+            TEMPLATES[statusCode] = template(statusCode);
+        }
+    }
+
     @Override
     public Response toResponse(@NonNull final RuntimeException e) {
-        return createResponse(handleException(e));
+        // the first cause we know decides, otherwise the innermost one
+        Throwable cause = e;
+        Response.StatusType status = status(cause);
+        while (status == null && cause.getCause() != null) {
+            cause = cause.getCause();
+            status = status(cause);
+        }
+        if (status == null) {
+            status = INTERNAL_SERVER_ERROR;
+        }
+        Metrics.instance().recordError(status.getStatusCode());
+        return Response.status(status)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(entity(status, cause.getMessage()))
+                .build();
     }
 
-    private ResponseData handleException(@NonNull final Throwable e) {
+    private static Response.StatusType status(@NonNull final Throwable e) {
         if (e instanceof ConcurrentModificationException) {
-            return new ResponseData(CONFLICT, e.getMessage());
+            return CONFLICT;
         }
         if (e instanceof NotFoundException) {
-            return new ResponseData(NOT_FOUND, e.getMessage());
+            return NOT_FOUND;
         }
-        if (e.getCause() != null) {
-            return handleException(e.getCause());
+        if (e instanceof StartupInProgressException || e instanceof StartupFailedException) {
+            return SERVICE_UNAVAILABLE; // not ready, a load balancer takes the instance out of rotation
         }
-        return new ResponseData(INTERNAL_SERVER_ERROR, e.getMessage());
+        if (e instanceof ReadOnlyReplicaException) {
+            return FORBIDDEN; // the method is allowed, just not on this instance, the message points to the primary
+        }
+        if (e instanceof WebApplicationException) {
+            return ((WebApplicationException) e).getResponse().getStatusInfo();
+        }
+        return null;
     }
 
-    private Response createResponse(@NonNull ResponseData responseData) {
-        final JsonObject entity = Json.createObjectBuilder()
-                .add("status", responseData.getStatus().getStatusCode())
-                .add("message", responseData.getMessage())
-                .build();
-        return Response.status(responseData.getStatus())
-                .type(MediaType.APPLICATION_JSON)
-                .entity(entity).build();
+    private static String entity(@NonNull final Response.StatusType status, final String message) {
+        final int statusCode = status.getStatusCode();
+        final String template = statusCode >= 0 && statusCode < TEMPLATES.length
+                ? TEMPLATES[statusCode] : template(statusCode);
+        if (message == null) {
+            return template + "null}"; //NON-NLS
+        }
+        final StringBuilder entity = new StringBuilder(template.length() + message.length() + 4).append(template);
+        appendQuoted(entity, message);
+        return entity.append('}').toString();
+    }
+
+    private static String template(final int statusCode) {
+        return "{\"status\":" + statusCode + ",\"message\":"; //NON-NLS
     }
 
-    @Value
-    private class ResponseData {
-        private Response.Status status;
-        private String message;
+    private static void appendQuoted(@NonNull final StringBuilder out, @NonNull final String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n"); //NON-NLS
+            } else if (c == '\r') {
+                out.append("\\r"); //NON-NLS
+            } else if (c == '\t') {
+                out.append("\\t"); //NON-NLS
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c)); //NON-NLS
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import pl.setblack.airomem.core.PersistenceController;
+import pl.setblack.airomem.core.SimpleController;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// takes snapshots in the background to keep the journal replay on startup short
+@Slf4j
+class SnapshotScheduler {
+
+    static final String SNAPSHOT_INTERVAL_PROPERTY = "sportchef.events.snapshotInterval"; //NON-NLS
+    static final String SNAPSHOT_JOURNAL_SIZE_PROPERTY = "sportchef.events.snapshotJournalSize"; //NON-NLS
+
+    private static final long DEFAULT_SNAPSHOT_INTERVAL = TimeUnit.HOURS.toMillis(1);
+    private static final long DEFAULT_SNAPSHOT_JOURNAL_SIZE = 64L * 1024 * 1024;
+    private static final long CHECK_INTERVAL_SECONDS = 10;
+
+    private final String name;
+    private final SimpleController<?> controller;
+    private final Path store;
+    private final long intervalNanos;
+    private final long journalSizeThreshold;
+
+    private ScheduledExecutorService executor;
+    private long lastSnapshot = System.nanoTime();
+    private long journalBytesAtLastSnapshot;
+
+    SnapshotScheduler(@NonNull final String name, @NonNull final SimpleController<?> controller,
+                      @NonNull final Path store, final long intervalMillis, final long journalSizeThreshold) {
+        this.name = name;
+        this.controller = controller;
+        this.store = store;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.journalSizeThreshold = journalSizeThreshold;
+    }
+
+    static void start(@NonNull final String name, @NonNull final SimpleController<?> controller,
+                      @NonNull final Path store) {
+        final SnapshotScheduler scheduler = new SnapshotScheduler(name, controller, store,
+                Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL),
+                Long.getLong(SNAPSHOT_JOURNAL_SIZE_PROPERTY, DEFAULT_SNAPSHOT_JOURNAL_SIZE));
+        if (scheduler.intervalNanos <= 0 && scheduler.journalSizeThreshold <= 0) {
+            log.info("Scheduled snapshots of entity '{}' are disabled.", name); //NON-NLS
+            return;
+        }
+        scheduler.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "persistence-snapshot"); //NON-NLS
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.executor.scheduleWithFixedDelay(scheduler::check,
+                CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // returns true if a snapshot was taken
+    boolean check() {
+        if (!controller.isOpen()) {
+            if (executor != null) {
+                executor.shutdown();
+            }
+            return false;
+        }
+        try {
+            final long journalBytes = StoreContent.scan(store).getJournalBytes() - journalBytesAtLastSnapshot;
+            final boolean intervalElapsed = intervalNanos > 0 && journalBytes > 0
+                    && System.nanoTime() - lastSnapshot >= intervalNanos;
+            final boolean journalTooBig = journalSizeThreshold > 0 && journalBytes >= journalSizeThreshold;
+            if (intervalElapsed || journalTooBig) {
+                snapshot();
+                return true;
+            }
+        } catch (final IOException | ReflectiveOperationException | RuntimeException e) {
+            log.error("Taking a snapshot of entity '{}' failed.", name, e); //NON-NLS
+        }
+        return false;
+    }
+
+    private void snapshot() throws IOException, ReflectiveOperationException {
+        final long start = System.nanoTime();
+        // airomem only exposes snapshot() on the persistence controller wrapped by the simple controller
+        final Field field = SimpleController.class.getDeclaredField("controller"); //NON-NLS
+        field.setAccessible(true);
+        ((PersistenceController<?, ?>) field.get(controller)).snapshot();
+        lastSnapshot = System.nanoTime();
+
+        final StoreContent content = StoreContent.scan(store);
+        for (final Path file : content.getObsoleteFiles()) {
+            Files.deleteIfExists(file);
+        }
+        journalBytesAtLastSnapshot = content.getJournalBytes();
+        log.info("Took a snapshot of entity '{}' in {} ms and pruned {} obsolete files.", //NON-NLS
+                name, TimeUnit.NANOSECONDS.toMillis(lastSnapshot - start), content.getObsoleteFiles().size());
+    }
+
+}
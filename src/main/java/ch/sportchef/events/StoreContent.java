@@ -0,0 +1,99 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// prevayler loads the latest snapshot and replays the journals written after it,
+// a journal is named after its first transaction and a snapshot after its last one
+@Value
+class StoreContent {
+
+    private static final Pattern STORE_FILE = Pattern.compile("(\\d+)\\.(snapshot|journal)"); //NON-NLS
+
+    private long snapshotBytes;
+    private long snapshotMillis; // when the latest snapshot was written, 0 without one
+    private int journalFiles;
+    private long journalBytes;
+    private List<Path> obsoleteFiles;
+
+    static StoreContent scan(@NonNull final Path store) throws IOException {
+        if (!Files.isDirectory(store)) {
+            return new StoreContent(0, 0, 0, 0, new ArrayList<>());
+        }
+        final List<Path> snapshots;
+        final List<Path> journals;
+        try (Stream<Path> files = Files.list(store)) {
+            final List<Path> storeFiles = files
+                    .filter(file -> STORE_FILE.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(StoreContent::number))
+                    .collect(Collectors.toList());
+            snapshots = storeFiles.stream().filter(file -> "snapshot".equals(type(file))).collect(Collectors.toList()); //NON-NLS
+            journals = storeFiles.stream().filter(file -> "journal".equals(type(file))).collect(Collectors.toList()); //NON-NLS
+        }
+
+        final List<Path> obsoleteFiles = new ArrayList<>();
+        long snapshotBytes = 0;
+        long snapshotMillis = 0;
+        long lastTransaction = 0;
+        if (!snapshots.isEmpty()) {
+            final Path snapshot = snapshots.get(snapshots.size() - 1);
+            snapshotBytes = Files.size(snapshot);
+            snapshotMillis = Files.getLastModifiedTime(snapshot).toMillis();
+            lastTransaction = number(snapshot);
+            obsoleteFiles.addAll(snapshots.subList(0, snapshots.size() - 1));
+        }
+
+        int journalFiles = 0;
+        long journalBytes = 0;
+        for (int i = 0; i < journals.size(); i++) {
+            // the newest journal is still written to, older ones end where the next one starts
+            final boolean covered = i < journals.size() - 1 && number(journals.get(i + 1)) <= lastTransaction + 1;
+            if (covered) {
+                obsoleteFiles.add(journals.get(i));
+            } else {
+                journalFiles++;
+                journalBytes += Files.size(journals.get(i));
+            }
+        }
+        return new StoreContent(snapshotBytes, snapshotMillis, journalFiles, journalBytes, obsoleteFiles);
+    }
+
+    private static long number(@NonNull final Path file) {
+        final Matcher matcher = STORE_FILE.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static String type(@NonNull final Path file) {
+        final Matcher matcher = STORE_FILE.matcher(file.getFileName().toString());
+        return matcher.matches() ? matcher.group(2) : null;
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.controller.EventChangeListener;
+import ch.sportchef.events.controller.EventService;
+import ch.sportchef.events.entity.EventChange;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.glassfish.jersey.media.sse.SseFeature;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+
+@Slf4j
+@Path("events/changes")
+@Produces(SseFeature.SERVER_SENT_EVENTS)
+public class EventChangesResource {
+
+    private EventService eventService;
+
+    @Inject
+    public EventChangesResource(@NonNull final EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @GET
+    public EventOutput follow(@HeaderParam(SseFeature.LAST_EVENT_ID_HEADER) final String lastEventId) {
+        final EventOutput eventOutput = new EventOutput();
+        eventService.followChanges(lastEventId, new EventChangeListener() {
+            @Override
+            public void changed(@NonNull final String id, @NonNull final EventChange change) throws IOException {
+                if (eventOutput.isClosed()) {
+                    throw new IOException("The client stopped following the changes.");
+                }
+                eventOutput.write(new OutboundEvent.Builder()
+                        .id(id)
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(EventChange.class, change)
+                        .build());
+            }
+
+            // the client reconnects with the last id it received and gets the missed changes or a reset
+            @Override
+            public void dropped() {
+                try {
+                    eventOutput.close();
+                } catch (final IOException e) {
+                    log.debug("Closing the changes of a dropped client failed.", e); //NON-NLS
+                }
+            }
+        });
+        return eventOutput;
+    }
+
+}
@@ -17,30 +17,45 @@
  */
 package ch.sportchef.events.boundary;
 
+import ch.sportchef.events.controller.EventConflictException;
 import ch.sportchef.events.controller.EventService;
+import ch.sportchef.events.controller.EventWatch;
 import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperationResult;
 import lombok.NonNull;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.net.URI;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Path("events/{eventId}")
 @Produces(MediaType.APPLICATION_JSON)
 public class EventResource {
 
+    private static final int MAX_WATCH_TIMEOUT = 300;
+
     private EventService eventService;
 
     @Inject
@@ -48,32 +63,86 @@ public class EventResource {
         this.eventService = eventService;
     }
 
+    // with waitForVersionAfter the request is parked until the event gets a newer version, is deleted or times out
     @GET
-    public Response read(@NonNull @PathParam("eventId") final Long eventId) {
-        final Optional<Event> event = eventService.read(eventId);
-        if (event.isPresent()) {
-            return Response.ok(event.get()).build();
+    public void read(@PathParam("eventId") final long eventId,
+                     @QueryParam("waitForVersionAfter") final Long waitForVersionAfter,
+                     @QueryParam("timeout") @DefaultValue("30") final int timeout,
+                     @NonNull @Context final Request request,
+                     @NonNull @Suspended final AsyncResponse asyncResponse) {
+        if (waitForVersionAfter == null) {
+            resume(asyncResponse, () -> read(eventId, request));
+            return;
+        }
+        if (timeout < 1 || timeout > MAX_WATCH_TIMEOUT) {
+            throw new BadRequestException(String.format(
+                    "The timeout must be between 1 and %d seconds.", MAX_WATCH_TIMEOUT));
         }
-        throw new NotFoundException(String.format("Event with id '%d' not found.", eventId));
+        final AtomicReference<EventWatch> watch = new AtomicReference<>();
+        asyncResponse.setTimeoutHandler(timedOut -> {
+            Optional.ofNullable(watch.get()).ifPresent(EventWatch::cancel);
+            resume(timedOut, () -> read(eventId, request));
+        });
+        asyncResponse.setTimeout(timeout, TimeUnit.SECONDS);
+        watch.set(eventService.watch(eventId, waitForVersionAfter, event -> resume(asyncResponse,
+                () -> response(event.orElseThrow(() -> notFound(eventId)), request))));
+    }
+
+    public Response read(final long eventId, @NonNull final Request request) {
+        return response(eventService.read(eventId).orElseThrow(() -> notFound(eventId)), request);
     }
 
     @PUT
     public Response update(@NonNull @PathParam("eventId") final Long eventId,
                            @NonNull @Valid final Event event,
                            @NonNull @Context final UriInfo info) {
-        read(eventId); // only update existing events
         final Event eventToUpdate = event.toBuilder()
                 .eventId(eventId)
                 .build();
-        final Event updatedEvent = eventService.update(eventToUpdate);
+        final Event updatedEvent = successful(eventId, eventService.update(eventToUpdate));
         final URI uri = info.getAbsolutePathBuilder().build();
-        return Response.ok(updatedEvent).header("Location", uri.toString()).build();
+        return Response.ok(updatedEvent)
+                .tag(new EntityTag(String.valueOf(updatedEvent.getVersion())))
+                .header("Location", uri.toString())
+                .build();
     }
 
     @DELETE
     public Response delete(@NonNull @PathParam("eventId") final Long eventId) {
-        read(eventId); // only delete existing events
-        eventService.delete(eventId);
+        successful(eventId, eventService.delete(eventId));
         return Response.noContent().build();
     }
+
+    private Response response(@NonNull final Event event, @NonNull final Request request) {
+        final EntityTag entityTag = new EntityTag(String.valueOf(event.getVersion()));
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(event).tag(entityTag).build();
+    }
+
+    // errors are passed to the exception mappers like those of a synchronous request
+    private void resume(@NonNull final AsyncResponse asyncResponse, @NonNull final Supplier<Response> response) {
+        try {
+            asyncResponse.resume(response.get());
+        } catch (final RuntimeException e) {
+            asyncResponse.resume(e);
+        }
+    }
+
+    private Event successful(@NonNull final Long eventId, @NonNull final EventOperationResult result) {
+        switch (result.getOutcome()) {
+            case NOT_FOUND:
+                throw notFound(eventId);
+            case CONFLICT:
+                throw new EventConflictException("You tried to update an event that was modified concurrently!");
+            default:
+                return result.getEvent();
+        }
+    }
+
+    private NotFoundException notFound(final long eventId) {
+        return new EventNotFoundException(eventId);
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.controller.EventService;
+import lombok.NonNull;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+@Path("events/stats")
+@Produces(MediaType.APPLICATION_JSON)
+public class EventStatsResource {
+
+    private EventService eventService;
+
+    @Inject
+    public EventStatsResource(@NonNull final EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @GET
+    public Response read(@NonNull @Context final Request request) {
+        // read the modification before the stats, the tag must never be newer than the content
+        final EntityTag entityTag = new EntityTag(String.valueOf(eventService.readModification()));
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(eventService.readStats()).tag(entityTag).build();
+    }
+
+}
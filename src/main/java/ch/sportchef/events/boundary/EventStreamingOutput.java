@@ -0,0 +1,54 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.entity.Event;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import lombok.NonNull;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+class EventStreamingOutput implements StreamingOutput {
+
+    private static final Gson GSON = new Gson();
+
+    private final Stream<Event> events;
+
+    EventStreamingOutput(@NonNull final Stream<Event> events) {
+        this.events = events;
+    }
+
+    @Override
+    public void write(@NonNull final OutputStream output) throws IOException {
+        final JsonWriter writer = new JsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.beginArray();
+        final Iterator<Event> iterator = events.iterator();
+        while (iterator.hasNext()) {
+            GSON.toJson(iterator.next(), Event.class, writer);
+        }
+        writer.endArray();
+        writer.flush();
+    }
+}
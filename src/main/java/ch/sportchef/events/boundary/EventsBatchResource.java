@@ -0,0 +1,67 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.controller.EventService;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import lombok.NonNull;
+
+import javax.inject.Inject;
+import javax.validation.Valid;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+@Path("events/batch")
+@Produces(MediaType.APPLICATION_JSON)
+public class EventsBatchResource {
+
+    private EventService eventService;
+
+    @Inject
+    public EventsBatchResource(@NonNull final EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @POST
+    public Response apply(@NonNull @Valid final List<EventOperation> operations) {
+        for (int index = 0; index < operations.size(); index++) {
+            validate(operations.get(index), index);
+        }
+        final List<EventOperationResult> results = eventService.apply(operations);
+        return Response.ok(results).build();
+    }
+
+    private void validate(final EventOperation operation, final int index) {
+        if (operation == null || operation.getType() == null) {
+            throw new BadRequestException(String.format("Operation %d has no type.", index));
+        }
+        final EventOperation.Type type = operation.getType();
+        if (type != EventOperation.Type.DELETE && operation.getEvent() == null) {
+            throw new BadRequestException(String.format("Operation %d (%s) has no event.", index, type));
+        }
+        if (type != EventOperation.Type.CREATE && operation.getEventId() == null) {
+            throw new BadRequestException(String.format("Operation %d (%s) has no event id.", index, type));
+        }
+    }
+}
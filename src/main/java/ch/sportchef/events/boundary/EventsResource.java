@@ -17,22 +17,31 @@
  */
 package ch.sportchef.events.boundary;
 
+import ch.sportchef.events.controller.EventCursor;
+import ch.sportchef.events.controller.EventFilter;
 import ch.sportchef.events.controller.EventService;
 import ch.sportchef.events.entity.Event;
 import lombok.NonNull;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.io.File;
 import java.net.URI;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Path("events")
@@ -56,9 +65,74 @@ public class EventsResource {
     }
 
     @GET
-    public Response read() {
-        final List<Event> events = eventService.read();
-        return Response.ok(events).build();
+    public Response read(@QueryParam("from") final String from,
+                         @QueryParam("to") final String to,
+                         @QueryParam("location") final String location,
+                         @QueryParam("cursor") final String cursor,
+                         @QueryParam("limit") final Integer limit,
+                         @QueryParam("stream") final boolean stream,
+                         @NonNull @Context final Request request,
+                         @NonNull @Context final UriInfo info) {
+        // read the modification before the events, the tag must never be newer than the content
+        final EntityTag entityTag = new EntityTag(String.valueOf(eventService.readModification()));
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        if (stream) {
+            if (cursor != null || limit != null) {
+                throw new BadRequestException("Streaming can't be combined with pagination.");
+            }
+            final EventFilter filter = createFilter(from, to, location);
+            return Response.ok(new EventStreamingOutput(eventService.stream(filter))).tag(entityTag).build();
+        }
+        if (from == null && to == null && location == null && cursor == null && limit == null) {
+            final List<Event> events = eventService.read();
+            return Response.ok(events).tag(entityTag).build();
+        }
+        if (limit != null && limit < 1) {
+            throw new BadRequestException(String.format("Limit must be positive but was '%d'.", limit));
+        }
+        final EventFilter filter = createFilter(from, to, location);
+        final int pageSize = limit != null ? limit : Integer.MAX_VALUE;
+        final List<Event> events = cursor != null
+                ? eventService.read(filter, parseCursor(cursor), pageSize)
+                : eventService.read(filter, pageSize);
+        final Response.ResponseBuilder responseBuilder = Response.ok(events).tag(entityTag);
+        if (!events.isEmpty() && events.size() == pageSize) {
+            final EventCursor nextCursor = EventCursor.of(events.get(events.size() - 1));
+            final URI uri = info.getRequestUriBuilder().replaceQueryParam("cursor", nextCursor.encode()).build();
+            responseBuilder.links(Link.fromUri(uri).rel("next").build());
+        }
+        return responseBuilder.build();
+    }
+
+    private EventFilter createFilter(final String from, final String to, final String location) {
+        final EventFilter filter = EventFilter.builder()
+                .from(parseDate("from", from))
+                .to(parseDate("to", to))
+                .location(location)
+                .build();
+        if (filter.getFrom() != null && filter.getTo() != null && filter.getFrom().isAfter(filter.getTo())) {
+            throw new BadRequestException(String.format("Date range from '%s' to '%s' is empty.", from, to));
+        }
+        return filter;
+    }
+
+    private LocalDate parseDate(@NonNull final String name, final String date) {
+        try {
+            return date != null ? LocalDate.parse(date) : null;
+        } catch (final DateTimeParseException e) {
+            throw new BadRequestException(String.format("Invalid date '%s' for parameter '%s'.", date, name), e);
+        }
+    }
+
+    private EventCursor parseCursor(@NonNull final String cursor) {
+        try {
+            return EventCursor.parse(cursor);
+        } catch (final IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
     }
 
 }
@@ -0,0 +1,177 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventChange;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// keeps the recent changes for clients following them instead of polling, a client resumes with the
+// id of the last change it received, the ids start with the epoch of the feed to survive restarts
+@Slf4j
+class EventChangeFeed {
+
+    private final long epoch = System.currentTimeMillis();
+    private final int capacity;
+    private final int pendingLimit;
+    private final Deque<EventChange> changes = new ArrayDeque<>();
+    private long sequence;
+
+    // only touched by the notifier, which hands the changes to the subscriptions in the order of their sequence
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "event-change-feed"); //NON-NLS
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // every subscription delivers its changes on its own, so a slow client only holds up itself
+    private final ExecutorService deliverer = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "event-change-delivery"); //NON-NLS
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    EventChangeFeed(final int capacity, final int pendingLimit) {
+        this.capacity = capacity;
+        this.pendingLimit = pendingLimit;
+    }
+
+    synchronized void publish(@NonNull final EventChange.Type type, @NonNull final Event event) {
+        final EventChange change = new EventChange(++sequence, type, event);
+        changes.addLast(change);
+        if (changes.size() > capacity) {
+            changes.removeFirst();
+        }
+        notifier.execute(() -> subscriptions.removeIf(subscription -> !subscription.offer(change)));
+    }
+
+    // replays the changes after the given id and then follows the new ones, without an id only the new ones
+    synchronized void subscribe(final String lastId, @NonNull final EventChangeListener listener) {
+        final long after = lastId != null ? parseSequence(lastId) : sequence;
+        final long current = sequence;
+        final List<EventChange> backlog = new ArrayList<>(changes);
+        // queued before the changes published later, so the subscription sees every change exactly once
+        notifier.execute(() -> {
+            final boolean complete = after >= 0 && after <= current
+                    && (after == current || !backlog.isEmpty() && backlog.get(0).getSequence() <= after + 1);
+            final Subscription subscription = new Subscription(listener);
+            boolean open = true;
+            if (complete) {
+                for (final EventChange change : backlog) {
+                    if (open && change.getSequence() > after) {
+                        open = subscription.offer(change);
+                    }
+                }
+            } else {
+                open = subscription.offer(new EventChange(current, EventChange.Type.RESET, null));
+            }
+            if (open) {
+                subscriptions.add(subscription);
+            }
+        });
+    }
+
+    void close() {
+        notifier.shutdownNow();
+        deliverer.shutdownNow();
+    }
+
+    private String id(final long sequence) {
+        return String.format("%d-%d", epoch, sequence); //NON-NLS
+    }
+
+    // -1 if the id is malformed or was handed out by an earlier feed
+    private long parseSequence(@NonNull final String id) {
+        final String[] parts = id.split("-"); //NON-NLS
+        try {
+            return parts.length == 2 && Long.parseLong(parts[0]) == epoch ? Long.parseLong(parts[1]) : -1;
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // returns false if the listener has ended its subscription
+    private boolean deliver(@NonNull final EventChangeListener listener, @NonNull final EventChange change) {
+        try {
+            listener.changed(id(change.getSequence()), change);
+            return true;
+        } catch (final IOException | RuntimeException e) {
+            log.debug("Ending the subscription of a change listener.", e); //NON-NLS
+            return false;
+        }
+    }
+
+    // the changes waiting for a listener, at most one delivery task runs at a time to keep their order
+    private final class Subscription implements Runnable {
+
+        private final EventChangeListener listener;
+        private final BlockingQueue<EventChange> pending = new LinkedBlockingQueue<>(pendingLimit);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean dropped;
+        private volatile boolean ended;
+
+        private Subscription(@NonNull final EventChangeListener listener) {
+            this.listener = listener;
+        }
+
+        // returns false once the subscription has ended, a listener falling too far behind is dropped
+        private boolean offer(@NonNull final EventChange change) {
+            if (ended || dropped) {
+                return false;
+            }
+            if (!pending.offer(change)) {
+                dropped = true;
+                pending.clear();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                deliverer.execute(this);
+            }
+            return !dropped;
+        }
+
+        @Override
+        public void run() {
+            do {
+                EventChange change;
+                while (!ended && !dropped && (change = pending.poll()) != null) {
+                    ended = !deliver(listener, change);
+                }
+                if (dropped && !ended) {
+                    ended = true;
+                    log.info("Dropping a change listener which fell more than {} changes behind.", pendingLimit); //NON-NLS
+                    listener.dropped();
+                }
+                scheduled.set(false);
+                // changes offered while the flag was still set have to be delivered by this task
+            } while (!ended && (dropped || !pending.isEmpty()) && scheduled.compareAndSet(false, true));
+        }
+    }
+}
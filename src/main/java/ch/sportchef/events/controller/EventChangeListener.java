@@ -0,0 +1,34 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.EventChange;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface EventChangeListener {
+
+    // throwing an IOException ends the subscription, e.g. because the client went away
+    void changed(String id, EventChange change) throws IOException;
+
+    // called instead of further changes when the listener fell too far behind, its subscription has ended
+    default void dropped() {
+    }
+
+}
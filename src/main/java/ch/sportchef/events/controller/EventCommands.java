@@ -0,0 +1,52 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import pl.setblack.airomem.core.Command;
+import pl.setblack.airomem.core.VoidCommand;
+
+import java.util.List;
+
+// the commands written to the journal, their lambdas must not change as long as journals with them exist
+@UtilityClass
+class EventCommands {
+
+    static Command<EventRepository, List<EventOperationResult>> apply(
+            @NonNull final List<EventOperation> operations) {
+        return repository -> repository.apply(operations);
+    }
+
+    // the commands of journals written before batches, see EventService.$deserializeLambda$
+    static Command<EventRepository, Event> legacyCreate(@NonNull final Event event) {
+        return repository -> repository.createLegacy(event);
+    }
+
+    static Command<EventRepository, Event> legacyUpdate(@NonNull final Event event) {
+        return repository -> repository.updateLegacy(event);
+    }
+
+    static VoidCommand<EventRepository> legacyDelete(@NonNull final Long eventId) {
+        return repository -> repository.delete(eventId);
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+@Value
+public class EventCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private LocalDate date;
+    private LocalTime time;
+    private Long eventId;
+
+    public static EventCursor of(@NonNull final Event event) {
+        return new EventCursor(event.getDate(), event.getTime(), event.getEventId());
+    }
+
+    public static EventCursor parse(@NonNull final String cursor) {
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] parts = decoded.split(SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(String.format("Invalid cursor '%s'.", cursor));
+            }
+            return new EventCursor(
+                    LocalDate.ofEpochDay(Long.parseLong(parts[0])),
+                    LocalTime.ofNanoOfDay(Long.parseLong(parts[1])),
+                    Long.parseLong(parts[2]));
+        } catch (final IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException(String.format("Invalid cursor '%s'.", cursor), e);
+        }
+    }
+
+    public String encode() {
+        final String decoded = date.toEpochDay() + SEPARATOR + time.toNanoOfDay() + SEPARATOR + eventId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+}
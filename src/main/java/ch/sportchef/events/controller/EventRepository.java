@@ -17,67 +17,357 @@
  */
 package ch.sportchef.events.controller;
 
+import ch.sportchef.events.Metrics;
 import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import ch.sportchef.events.entity.EventStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterables;
 import lombok.NonNull;
+import lombok.Value;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.SortedMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
-
-import static java.util.stream.Collectors.toList;
+import java.util.stream.Stream;
 
 class EventRepository implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final Map<Long, Event> allEvents = new ConcurrentHashMap<>();
-    private final AtomicLong eventSequence = new AtomicLong(0);
+    static final Comparator<Event> CHRONOLOGICAL_ORDER = Comparator
+            .comparing(Event::getDate)
+            .thenComparing(Event::getTime)
+            .thenComparing(Event::getEventId);
+
+    // the fields of streams written before the compact format, see readObject
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("allEvents", Map.class), //NON-NLS
+            new ObjectStreamField("eventSequence", AtomicLong.class), //NON-NLS
+            new ObjectStreamField("modificationSequence", AtomicLong.class) //NON-NLS
+    };
+
+    private EventTable allEvents;
+    private AtomicLong eventSequence;
+    private AtomicLong modificationSequence;
+    private int shards; // ids are interleaved with the other shards, see EventService
+
+    // derived from allEvents, rebuilt after deserialization, the position of an event maps to its current
+    // version, so an update that keeps the position replaces the entry atomically
+    private transient NavigableMap<Event, Event> chronologicalIndex = new ConcurrentSkipListMap<>(CHRONOLOGICAL_ORDER);
+    private transient Map<String, NavigableMap<Event, Event>> locationIndex = new ConcurrentHashMap<>();
+    // counted along with the indexes, so the stats don't have to look at the events
+    private transient ConcurrentNavigableMap<LocalDate, Long> dateCounts = new ConcurrentSkipListMap<>();
+    private transient ConcurrentNavigableMap<String, Long> locationCounts = new ConcurrentSkipListMap<>();
+    private transient volatile EventListSnapshot eventListSnapshot;
+    // canonical instance of every location in use, only touched by writes
+    private transient Map<String, String> locations = new HashMap<>();
+
+    EventRepository() {
+        this(0, 1);
+    }
+
+    // the shard hands out the ids shard + 1, shard + 1 + shards, shard + 1 + 2 * shards, ...
+    EventRepository(final int shard, final int shards) {
+        this.allEvents = new EventTable(shard + 1, shards);
+        this.eventSequence = new AtomicLong(shard + 1 - shards);
+        this.modificationSequence = new AtomicLong(0);
+        this.shards = shards;
+    }
+
+    // restores a repository written by SerializedEventRepository, the events arrive in chronological
+    // order which makes inserting them into the skip lists of the indexes much more cache friendly
+    static EventRepository restore(final long eventSequence, final long modificationSequence, final int shards,
+                                   @NonNull final Collection<Event> events) {
+        final int shard = (int) Math.floorMod(eventSequence - 1, (long) shards);
+        final EventRepository eventRepository = new EventRepository(shard, shards);
+        eventRepository.eventSequence.set(eventSequence);
+        eventRepository.modificationSequence.set(modificationSequence);
+        events.forEach(event -> {
+            final Event canonicalEvent = eventRepository.withCanonicalLocation(event);
+            eventRepository.allEvents.put(canonicalEvent);
+            eventRepository.addToIndexes(canonicalEvent);
+        });
+        return eventRepository;
+    }
 
     Event create(@NonNull final Event event) {
-        final Long eventId = eventSequence.incrementAndGet();
-        final long version = event.hashCode();
-        final Event eventToCreate = event.toBuilder().eventId(eventId).version(version).build();
-        allEvents.put(eventId, eventToCreate);
-        return eventToCreate;
+        return create(event, nextVersion());
+    }
+
+    // replays journals written before the versions came from the modification sequence, see EventCommands
+    Event createLegacy(@NonNull final Event event) {
+        return create(event, event.hashCode());
     }
 
     List<Event> read() {
-        return ImmutableList.copyOf(
-                allEvents.values().stream()
-                        .sorted((event1, event2) -> {
-                            final LocalDateTime event1DateTime = LocalDateTime.of(event1.getDate(), event1.getTime());
-                            final LocalDateTime event2DateTime = LocalDateTime.of(event2.getDate(), event2.getTime());
-                            return event1DateTime.compareTo(event2DateTime);
-                        })
-                        .collect(toList()));
+        final EventListSnapshot snapshot = eventListSnapshot;
+        final long modification = modificationSequence.get();
+        if (snapshot != null && snapshot.getModification() == modification) {
+            return snapshot.getEvents();
+        }
+        final List<Event> events = ImmutableList.copyOf(chronologicalIndex.values());
+        if (modificationSequence.get() == modification) {
+            // only publish if no write happened while copying
+            eventListSnapshot = new EventListSnapshot(modification, events);
+        }
+        return events;
+    }
+
+    EventStats readStats() {
+        final SortedMap<LocalDate, Long> dates = ImmutableSortedMap.copyOfSorted(dateCounts);
+        final long total = dates.values().stream().mapToLong(Long::longValue).sum();
+        return new EventStats(total, dates, ImmutableSortedMap.copyOfSorted(locationCounts));
+    }
+
+    int readShards() {
+        return shards;
+    }
+
+    long readModification() {
+        return modificationSequence.get();
+    }
+
+    List<Event> read(@NonNull final EventFilter filter, final int limit) {
+        return ImmutableList.copyOf(Iterables.limit(select(filter).values(), limit));
+    }
+
+    List<Event> read(@NonNull final EventFilter filter, @NonNull final EventCursor cursor, final int limit) {
+        final Event position = position(cursor.getDate(), cursor.getTime(), cursor.getEventId());
+        return ImmutableList.copyOf(Iterables.limit(select(filter).tailMap(position, false).values(), limit));
+    }
+
+    Stream<Event> stream(@NonNull final EventFilter filter) {
+        return select(filter).values().stream();
     }
 
-    Optional<Event> read(@NonNull final Long eventId) {
+    Optional<Event> read(final long eventId) {
         return Optional.ofNullable(allEvents.get(eventId));
     }
 
     Event update(@NonNull final Event event) {
+        return update(event, nextVersion());
+    }
+
+    Event updateLegacy(@NonNull final Event event) {
+        return update(event, event.hashCode());
+    }
+
+    private Event create(@NonNull final Event event, final long version) {
+        final Long eventId = eventSequence.addAndGet(shards);
+        final Event eventToCreate = event.toBuilder()
+                .eventId(eventId)
+                .version(version)
+                .location(canonicalLocation(event.getLocation()))
+                .build();
+        allEvents.put(eventToCreate);
+        addToIndexes(eventToCreate);
+        modified(version);
+        return eventToCreate;
+    }
+
+    private Event update(@NonNull final Event event, final long version) {
         final Long eventId = event.getEventId();
         final Event previousEvent = read(eventId).orElse(null);
         if (previousEvent == null) {
             return null; // non-existing events can't be updated
         }
         if (!previousEvent.getVersion().equals(event.getVersion())) {
-            throw new ConcurrentModificationException("You tried to update an event that was modified concurrently!");
+            throw new EventConflictException("You tried to update an event that was modified concurrently!");
         }
-        final long version = event.hashCode();
-        final Event eventToUpdate = event.toBuilder().version(version).build();
-        allEvents.put(eventId, eventToUpdate);
+        final Event eventToUpdate = event.toBuilder()
+                .version(version)
+                .location(canonicalLocation(event.getLocation()))
+                .build();
+        allEvents.put(eventToUpdate);
+        // enter the indexes before leaving them, so readers without a lock never miss the event
+        addToIndexes(eventToUpdate);
+        removeFromIndexes(previousEvent);
+        modified(version);
         return eventToUpdate;
     }
 
     Event delete(@NonNull final Long eventId) {
-        return allEvents.remove(eventId);
+        final Event deletedEvent = allEvents.remove(eventId);
+        if (deletedEvent != null) {
+            removeFromIndexes(deletedEvent);
+            modificationSequence.incrementAndGet();
+        }
+        return deletedEvent;
+    }
+
+    List<EventOperationResult> apply(@NonNull final List<EventOperation> operations) {
+        final long start = System.nanoTime();
+        final ImmutableList.Builder<EventOperationResult> results = ImmutableList.builder();
+        for (final EventOperation operation : operations) {
+            results.add(apply(operation));
+        }
+        Metrics.instance().recordStoreExecution(System.nanoTime() - start);
+        return results.build();
+    }
+
+    private EventOperationResult apply(@NonNull final EventOperation operation) {
+        switch (operation.getType()) {
+            case CREATE:
+                return EventOperationResult.ok(create(operation.getEvent()));
+            case UPDATE:
+                final Event eventToUpdate = operation.getEvent().toBuilder()
+                        .eventId(operation.getEventId())
+                        .build();
+                try {
+                    final Event updatedEvent = update(eventToUpdate);
+                    return updatedEvent != null ? EventOperationResult.ok(updatedEvent) : EventOperationResult.notFound();
+                } catch (final ConcurrentModificationException e) {
+                    return EventOperationResult.conflict();
+                }
+            case DELETE:
+                final Event deletedEvent = delete(operation.getEventId());
+                return deletedEvent != null ? EventOperationResult.ok(deletedEvent) : EventOperationResult.notFound();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown operation type '%s'.", operation.getType()));
+        }
+    }
+
+    private long nextVersion() {
+        // writes are serialized by the persistence layer, the sequence itself
+        // is only advanced after the write (see read())
+        return modificationSequence.get() + 1;
+    }
+
+    // the sequence continues above hash code based versions of old journals, like it does for old snapshots
+    private void modified(final long version) {
+        modificationSequence.updateAndGet(sequence -> Math.max(sequence + 1, version));
+    }
+
+    private NavigableMap<Event, Event> select(@NonNull final EventFilter filter) {
+        NavigableMap<Event, Event> events = filter.getLocation() != null
+                ? locationIndex.getOrDefault(filter.getLocation(), Collections.emptyNavigableMap())
+                : chronologicalIndex;
+        if (filter.getFrom() != null) {
+            events = events.tailMap(position(filter.getFrom(), LocalTime.MIN, Long.MIN_VALUE), true);
+        }
+        if (filter.getTo() != null) {
+            events = events.headMap(position(filter.getTo(), LocalTime.MAX, Long.MAX_VALUE), true);
+        }
+        return events;
+    }
+
+    private static Event position(@NonNull final LocalDate date, @NonNull final LocalTime time,
+                                  @NonNull final Long eventId) {
+        return Event.builder()
+                .eventId(eventId)
+                .date(date)
+                .time(time)
+                .build();
+    }
+
+    private Event withCanonicalLocation(@NonNull final Event event) {
+        final String location = canonicalLocation(event.getLocation());
+        return location == event.getLocation() ? event : event.toBuilder().location(location).build();
+    }
+
+    private String canonicalLocation(final String location) {
+        if (location == null) {
+            return null;
+        }
+        final String canonicalLocation = locations.putIfAbsent(location, location);
+        return canonicalLocation != null ? canonicalLocation : location;
+    }
+
+    private void addToIndexes(@NonNull final Event event) {
+        final Event replacedEvent = chronologicalIndex.put(event, event);
+        locationIndex.computeIfAbsent(event.getLocation(), location -> new ConcurrentSkipListMap<>(CHRONOLOGICAL_ORDER))
+                .put(event, event);
+        dateCounts.merge(event.getDate(), 1L, Long::sum);
+        locationCounts.merge(event.getLocation(), 1L, Long::sum);
+        if (replacedEvent != null) {
+            uncount(replacedEvent); // updated without changing the position
+        }
+    }
+
+    // only the entries of this very instance are removed, not those a newer version of the event replaced,
+    // writes are serialized by the persistence layer, so checking and removing needs no atomicity
+    private void removeFromIndexes(@NonNull final Event event) {
+        if (chronologicalIndex.get(event) == event) {
+            chronologicalIndex.remove(event);
+            uncount(event);
+        }
+        locationIndex.computeIfPresent(event.getLocation(), (location, events) -> {
+            if (events.get(event) == event) {
+                events.remove(event);
+            }
+            if (events.isEmpty()) {
+                locations.remove(location);
+                return null;
+            }
+            return events;
+        });
+    }
+
+    private void uncount(@NonNull final Event event) {
+        dateCounts.computeIfPresent(event.getDate(), (date, count) -> count > 1 ? count - 1 : null);
+        locationCounts.computeIfPresent(event.getLocation(), (location, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Object writeReplace() {
+        return new SerializedEventRepository(eventSequence.get(), modificationSequence.get(), shards,
+                new ArrayList<>(chronologicalIndex.values()));
+    }
+
+    // only streams written before the compact format reach this, see writeReplace
+    @SuppressWarnings("unchecked")
+    private void readObject(@NonNull final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        final ObjectInputStream.GetField fields = in.readFields();
+        final Map<Long, Event> legacyEvents = (Map<Long, Event>) fields.get("allEvents", null); //NON-NLS
+        eventSequence = (AtomicLong) fields.get("eventSequence", null); //NON-NLS
+        modificationSequence = (AtomicLong) fields.get("modificationSequence", null); //NON-NLS
+        if (modificationSequence == null) {
+            // snapshot written before modifications were counted, continue above
+            // the hash code based versions used back then to avoid collisions
+            final long maxVersion = legacyEvents.values().stream()
+                    .mapToLong(Event::getVersion)
+                    .max().orElse(0);
+            modificationSequence = new AtomicLong(Math.max(maxVersion, 0));
+        }
+        shards = 1; // written before sharding
+        allEvents = new EventTable(1, shards);
+        chronologicalIndex = new ConcurrentSkipListMap<>(CHRONOLOGICAL_ORDER);
+        locationIndex = new ConcurrentHashMap<>();
+        dateCounts = new ConcurrentSkipListMap<>();
+        locationCounts = new ConcurrentSkipListMap<>();
+        locations = new HashMap<>();
+        legacyEvents.values().stream()
+                .sorted(CHRONOLOGICAL_ORDER)
+                .map(this::withCanonicalLocation)
+                .forEachOrdered(event -> {
+                    allEvents.put(event);
+                    addToIndexes(event);
+                });
+    }
+
+    @Value
+    private static class EventListSnapshot {
+        private long modification;
+        private List<Event> events;
     }
 }
@@ -17,49 +17,404 @@
  */
 package ch.sportchef.events.controller;
 
+import ch.sportchef.events.Metrics;
 import ch.sportchef.events.PersistenceManager;
 import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventChange;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import ch.sportchef.events.entity.EventStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import lombok.NonNull;
-import pl.setblack.airomem.core.SimpleController;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
+import java.lang.invoke.SerializedLambda;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
 
 @Singleton
+@Slf4j
 public class EventService {
 
-    private SimpleController<EventRepository> eventController;
+    static final String GROUP_COMMIT_WINDOW_PROPERTY = "sportchef.events.groupCommitWindow"; //NON-NLS
+    static final String ASYNC_STARTUP_PROPERTY = "sportchef.events.asyncStartup"; //NON-NLS
+    static final String SHARDS_PROPERTY = "sportchef.events.shards"; //NON-NLS
+    static final String REPLICA_PROPERTY = "sportchef.events.replica"; //NON-NLS
+    static final String CHANGE_FEED_CAPACITY_PROPERTY = "sportchef.events.changeFeedCapacity"; //NON-NLS
+
+    private static final int DEFAULT_CHANGE_FEED_CAPACITY = 10_000;
+
+    private int shards;
+    private boolean replica;
+    private CompletableFuture<List<EventStore>> eventStores;
+    private List<GroupCommitter<EventOperation, EventOperationResult>> groupCommitters;
+    private List<Object> shardLocks;
+    private EventChangeFeed changeFeed;
+    private EventWatches eventWatches;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private volatile MergedEvents mergedEvents;
 
     @PostConstruct
     public void setupResources() {
-        this.eventController = PersistenceManager.createSimpleController(Event.class, EventRepository::new);
+        this.shards = Math.max(1, Integer.getInteger(SHARDS_PROPERTY, 1));
+        this.replica = Boolean.getBoolean(REPLICA_PROPERTY);
+        final int changeFeedCapacity = Integer.getInteger(CHANGE_FEED_CAPACITY_PROPERTY, DEFAULT_CHANGE_FEED_CAPACITY);
+        this.changeFeed = new EventChangeFeed(changeFeedCapacity, changeFeedCapacity);
+        this.shardLocks = IntStream.range(0, shards)
+                .mapToObj(shard -> new Object())
+                .collect(toList());
+        this.eventWatches = new EventWatches();
+        watchChanges(null);
+        if (Boolean.getBoolean(ASYNC_STARTUP_PROPERTY)) {
+            // deploy right away and answer with 503 until the stores are loaded
+            this.eventStores = CompletableFuture.supplyAsync(this::loadShards, runnable -> {
+                final Thread thread = new Thread(runnable, "event-startup"); //NON-NLS
+                thread.setDaemon(true);
+                thread.start();
+            });
+            this.eventStores.whenComplete((stores, failure) -> {
+                if (failure != null) {
+                    log.error("Loading the events failed, this instance will not serve any requests.", failure); //NON-NLS
+                }
+            });
+        } else {
+            this.eventStores = CompletableFuture.completedFuture(loadShards());
+        }
+        final long groupCommitWindow = Long.getLong(GROUP_COMMIT_WINDOW_PROPERTY, 0);
+        this.groupCommitters = IntStream.range(0, shards)
+                .mapToObj(shard -> new GroupCommitter<EventOperation, EventOperationResult>(
+                        "event-group-commit-" + shard, operations -> apply(shard, operations), //NON-NLS
+                        groupCommitWindow))
+                .collect(toList());
     }
 
     @PreDestroy
     public void cleanupResources() {
-        this.eventController.close();
+        this.groupCommitters.forEach(GroupCommitter::close);
+        this.changeFeed.close();
+        this.eventStores.thenAccept(stores -> stores.forEach(EventStore::close));
+        Metrics.instance().stopLogging();
     }
 
     public Event create(@NonNull final Event event) {
-        return this.eventController.executeAndQuery(mgr -> mgr.create(event));
+        final EventOperation operation = EventOperation.builder()
+                .type(EventOperation.Type.CREATE)
+                .event(event)
+                .build();
+        return commit(nextShard(), operation).getEvent();
     }
 
     public List<Event> read() {
-        return this.eventController.readOnly().read();
+        final List<EventStore> stores = eventStores();
+        if (stores.size() == 1) {
+            return stores.get(0).query(EventRepository::read);
+        }
+        final long modification = readModification();
+        final MergedEvents cached = mergedEvents;
+        if (cached != null && cached.getModification() == modification) {
+            return cached.getEvents();
+        }
+        final List<Event> events = merge(repository -> repository.read(), Integer.MAX_VALUE);
+        if (readModification() == modification) {
+            mergedEvents = new MergedEvents(modification, events); // only cache a consistent view
+        }
+        return events;
+    }
+
+    // every modification of a shard increases the sum
+    public long readModification() {
+        return eventStores().stream()
+                .mapToLong(store -> store.query(EventRepository::readModification))
+                .sum();
+    }
+
+    // the shards keep their own counts, a location can be counted by several of them
+    public EventStats readStats() {
+        final List<EventStore> stores = eventStores();
+        if (stores.size() == 1) {
+            return stores.get(0).query(EventRepository::readStats);
+        }
+        long total = 0;
+        final SortedMap<LocalDate, Long> dates = new TreeMap<>();
+        final SortedMap<String, Long> locations = new TreeMap<>();
+        for (final EventStore store : stores) {
+            final EventStats stats = store.query(EventRepository::readStats);
+            total += stats.getTotal();
+            stats.getDates().forEach((date, count) -> dates.merge(date, count, Long::sum));
+            stats.getLocations().forEach((location, count) -> locations.merge(location, count, Long::sum));
+        }
+        return new EventStats(total, dates, locations);
+    }
+
+    public List<Event> read(@NonNull final EventFilter filter, final int limit) {
+        return merge(repository -> repository.read(filter, limit), limit);
+    }
+
+    public List<Event> read(@NonNull final EventFilter filter, @NonNull final EventCursor cursor, final int limit) {
+        return merge(repository -> repository.read(filter, cursor, limit), limit);
+    }
+
+    public Stream<Event> stream(@NonNull final EventFilter filter) {
+        final List<EventStore> stores = eventStores();
+        if (stores.size() == 1) {
+            return stores.get(0).readOnly().stream(filter);
+        }
+        final List<Iterator<Event>> iterators = stores.stream()
+                .map(store -> store.readOnly().stream(filter).iterator())
+                .collect(toList());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                Iterators.mergeSorted(iterators, EventRepository.CHRONOLOGICAL_ORDER), Spliterator.ORDERED), false);
+    }
+
+    // the changes committed by this instance, see EventChangeFeed
+    public void followChanges(final String lastChangeId, @NonNull final EventChangeListener listener) {
+        eventStores(); // the feed starts with the loaded stores
+        changeFeed.subscribe(lastChangeId, listener);
+    }
+
+    // calls back once the event has a version after the given one, or with nothing once it is deleted
+    public EventWatch watch(final long eventId, final long afterVersion,
+                            @NonNull final Consumer<Optional<Event>> callback) {
+        final EventWatch watch = eventWatches.add(eventId, afterVersion, callback);
+        try {
+            watch.offer(read(eventId)); // after registering, so no change slips through
+        } catch (final RuntimeException e) {
+            watch.cancel();
+            throw e;
+        }
+        return watch;
+    }
+
+    public Optional<Event> read(final long eventId) {
+        return eventStore(shardOf(eventId)).query(repository -> repository.read(eventId));
+    }
+
+    public EventOperationResult update(@NonNull final Event event) {
+        final EventOperation operation = EventOperation.builder()
+                .type(EventOperation.Type.UPDATE)
+                .eventId(event.getEventId())
+                .event(event)
+                .build();
+        return commit(shardOf(event.getEventId()), operation);
+    }
+
+    public EventOperationResult delete(@NonNull final Long eventId) {
+        final EventOperation operation = EventOperation.builder()
+                .type(EventOperation.Type.DELETE)
+                .eventId(eventId)
+                .build();
+        return commit(shardOf(eventId), operation);
+    }
+
+    // a batch is applied atomically per shard, the results keep the order of the operations
+    public List<EventOperationResult> apply(@NonNull final List<EventOperation> operations) {
+        checkWritable();
+        if (shards == 1) {
+            return apply(0, operations);
+        }
+        final Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        for (int position = 0; position < operations.size(); position++) {
+            final EventOperation operation = operations.get(position);
+            final int shard = operation.getType() == EventOperation.Type.CREATE || operation.getEventId() == null
+                    ? nextShard() : shardOf(operation.getEventId());
+            positionsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(position);
+        }
+        final EventOperationResult[] results = new EventOperationResult[operations.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            final List<EventOperationResult> shardResults = apply(shard, positions.stream()
+                    .map(operations::get)
+                    .collect(toList()));
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = shardResults.get(i);
+            }
+        });
+        return ImmutableList.copyOf(results);
+    }
+
+    private List<EventOperationResult> apply(final int shard, @NonNull final List<EventOperation> operations) {
+        final List<EventOperation> operationsToApply = new ArrayList<>(operations); // journaled with the command
+        final EventStore store = eventStore(shard);
+        // batches and groups are written by different threads, the changes have to be published in commit order
+        synchronized (shardLocks.get(shard)) {
+            final List<EventOperationResult> results = store.executeAndQuery(EventCommands.apply(operationsToApply));
+            for (int i = 0; i < results.size(); i++) {
+                final EventOperationResult result = results.get(i);
+                if (result.getOutcome() == EventOperationResult.Outcome.OK) {
+                    changeFeed.publish(changeType(operationsToApply.get(i).getType()), result.getEvent());
+                }
+            }
+            return results;
+        }
+    }
+
+    // journals written by earlier versions refer to lambdas of this class, they are replayed with
+    // the matching EventCommands, which is why this class must not have serializable lambdas anymore
+    @SuppressWarnings({"unchecked", "unused"}) // called by SerializedLambda.readResolve
+    private static Object $deserializeLambda$(@NonNull final SerializedLambda lambda) {
+        final String name = lambda.getImplMethodName();
+        if (name.startsWith("lambda$create$")) { //NON-NLS
+            return EventCommands.legacyCreate((Event) lambda.getCapturedArg(0));
+        }
+        if (name.startsWith("lambda$update$")) { //NON-NLS
+            return EventCommands.legacyUpdate((Event) lambda.getCapturedArg(0));
+        }
+        if (name.startsWith("lambda$delete$")) { //NON-NLS
+            return EventCommands.legacyDelete((Long) lambda.getCapturedArg(0));
+        }
+        if (name.startsWith("lambda$apply$")) { //NON-NLS
+            return EventCommands.apply((List<EventOperation>) lambda.getCapturedArg(0));
+        }
+        throw new IllegalArgumentException(String.format("Unknown journaled command '%s'.", name));
+    }
+
+    private static EventChange.Type changeType(@NonNull final EventOperation.Type type) {
+        switch (type) {
+            case CREATE:
+                return EventChange.Type.CREATED;
+            case UPDATE:
+                return EventChange.Type.UPDATED;
+            case DELETE:
+                return EventChange.Type.DELETED;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown operation type '%s'.", type));
+        }
+    }
+
+    // the watches must not miss a change, so they resume where they were dropped if they fall behind
+    private void watchChanges(final String lastChangeId) {
+        changeFeed.subscribe(lastChangeId, new EventChangeListener() {
+            private String lastId = lastChangeId;
+
+            @Override
+            public void changed(@NonNull final String id, @NonNull final EventChange change) {
+                lastId = id;
+                eventWatches.changed(change);
+            }
+
+            @Override
+            public void dropped() {
+                watchChanges(lastId);
+            }
+        });
+    }
+
+    // shard 0 is the store used before sharding, so a single shard keeps all existing events
+    private List<EventStore> loadShards() {
+        final List<CompletableFuture<EventStore>> loading = IntStream.range(0, shards)
+                .mapToObj(shard -> CompletableFuture.supplyAsync(() -> loadShard(shard)))
+                .collect(toList());
+        return loading.stream()
+                .map(CompletableFuture::join)
+                .collect(toList());
+    }
+
+    private EventStore loadShard(final int shard) {
+        final EventStore store = replica ? replicateShard(shard) : EventStore.of(shard == 0
+                ? PersistenceManager.createSimpleController(Event.class, () -> new EventRepository(0, shards))
+                : PersistenceManager.createSimpleController(Event.class, "shard-" + shard, //NON-NLS
+                        () -> new EventRepository(shard, shards)));
+        final int storeShards = store.readOnly().readShards();
+        if (storeShards != shards) {
+            store.close();
+            throw new IllegalStateException(String.format(
+                    "The event store of shard %d was created for %d shards, but %d are configured!",
+                    shard, storeShards, shards));
+        }
+        return store;
+    }
+
+    // a replica follows the journals the primary writes below the same persistence root
+    private EventStore replicateShard(final int shard) {
+        return EventStore.of(shard == 0
+                ? PersistenceManager.createReplicaController(Event.class, () -> new EventRepository(0, shards))
+                : PersistenceManager.createReplicaController(Event.class, "shard-" + shard, //NON-NLS
+                        () -> new EventRepository(shard, shards)));
+    }
+
+    private int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), shards);
+    }
+
+    private int shardOf(final long eventId) {
+        return (int) Math.floorMod(eventId - 1, (long) shards);
+    }
+
+    private List<Event> merge(@NonNull final Function<EventRepository, List<Event>> read, final int limit) {
+        final List<EventStore> stores = eventStores();
+        if (stores.size() == 1) {
+            return stores.get(0).query(read);
+        }
+        final List<List<Event>> events = stores.stream()
+                .map(store -> store.query(read))
+                .collect(toList());
+        return ImmutableList.copyOf(Iterables.limit(
+                Iterables.mergeSorted(events, EventRepository.CHRONOLOGICAL_ORDER), limit));
+    }
+
+    private List<EventStore> eventStores() {
+        if (this.eventStores.isCompletedExceptionally()) {
+            throw new StartupFailedException("The events could not be loaded, please try another instance.");
+        }
+        final List<EventStore> stores = this.eventStores.getNow(null);
+        if (stores == null) {
+            throw new StartupInProgressException("The events are still being loaded, please try again later.");
+        }
+        return stores;
+    }
+
+    private EventStore eventStore(final int shard) {
+        return eventStores().get(shard);
     }
 
-    public Optional<Event> read(@NonNull final Long eventId) {
-        return this.eventController.readOnly().read(eventId);
+    private void checkWritable() {
+        if (replica) {
+            throw new ReadOnlyReplicaException("This instance is a read-only replica, please write to the primary.");
+        }
     }
 
-    public Event update(@NonNull final Event event) {
-        return this.eventController.executeAndQuery(mgr -> mgr.update(event));
+    private EventOperationResult commit(final int shard, @NonNull final EventOperation operation) {
+        checkWritable();
+        eventStores(); // don't queue operations while starting up
+        try {
+            return this.groupCommitters.get(shard).submit(operation).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the commit of an event operation.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
     }
 
-    public void delete(@NonNull final Long eventId) {
-        this.eventController.execute(mgr -> mgr.delete(eventId));
+    @Value
+    private static class MergedEvents {
+        private long modification;
+        private List<Event> events;
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.Metrics;
+import ch.sportchef.events.ReplicaController;
+import lombok.NonNull;
+import pl.setblack.airomem.core.Command;
+import pl.setblack.airomem.core.SimpleController;
+
+import java.util.function.Function;
+
+// a shard of the events, either owned by this instance or replicated from the journal of another one
+interface EventStore {
+
+    EventRepository readOnly();
+
+    // a timed query, lazy results like streams are better read from readOnly() directly
+    default <R> R query(@NonNull final Function<EventRepository, R> query) {
+        final long start = System.nanoTime();
+        try {
+            return query.apply(readOnly());
+        } finally {
+            Metrics.instance().recordStoreQuery(System.nanoTime() - start);
+        }
+    }
+
+    <R> R executeAndQuery(Command<EventRepository, R> command);
+
+    void close();
+
+    static EventStore of(@NonNull final SimpleController<EventRepository> controller) {
+        return new EventStore() {
+            @Override
+            public EventRepository readOnly() {
+                return controller.readOnly();
+            }
+
+            @Override
+            public <R> R executeAndQuery(@NonNull final Command<EventRepository, R> command) {
+                final long start = System.nanoTime();
+                Metrics.instance().startStorePersist();
+                try {
+                    return controller.executeAndQuery(command);
+                } finally {
+                    Metrics.instance().recordStorePersist(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public void close() {
+                controller.close();
+            }
+        };
+    }
+
+    static EventStore of(@NonNull final ReplicaController<EventRepository> replica) {
+        return new EventStore() {
+            @Override
+            public EventRepository readOnly() {
+                return replica.readOnly();
+            }
+
+            @Override
+            public <R> R executeAndQuery(@NonNull final Command<EventRepository, R> command) {
+                throw new ReadOnlyReplicaException("This instance is a read-only replica, please write to the primary.");
+            }
+
+            @Override
+            public void close() {
+                replica.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// events by id without boxed keys or map nodes: a repository hands out the ids first, first + stride,
+// first + 2 * stride, ... so every id has its own slot in a dense array of chunks
+// writes are serialized by the persistence layer, reads may run concurrently
+class EventTable {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long first;
+    private final int stride;
+
+    private volatile AtomicReferenceArray<AtomicReferenceArray<Event>> chunks = new AtomicReferenceArray<>(0);
+
+    EventTable(final long first, final int stride) {
+        if (stride < 1) {
+            throw new IllegalArgumentException(String.format("Invalid stride '%d'.", stride)); //NON-NLS
+        }
+        this.first = first;
+        this.stride = stride;
+    }
+
+    Event get(final long eventId) {
+        final long slot = slot(eventId);
+        final AtomicReferenceArray<AtomicReferenceArray<Event>> directory = chunks;
+        if (slot < 0 || slot >>> CHUNK_BITS >= directory.length()) {
+            return null;
+        }
+        final AtomicReferenceArray<Event> chunk = directory.get((int) (slot >>> CHUNK_BITS));
+        return chunk != null ? chunk.get((int) slot & CHUNK_MASK) : null;
+    }
+
+    Event put(@NonNull final Event event) {
+        final long eventId = event.getEventId();
+        final long slot = slot(eventId);
+        if (slot < 0 || slot >>> CHUNK_BITS >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Event id '%d' does not fit into this table.", eventId)); //NON-NLS
+        }
+        return chunk((int) (slot >>> CHUNK_BITS)).getAndSet((int) slot & CHUNK_MASK, event);
+    }
+
+    Event remove(final long eventId) {
+        final long slot = slot(eventId);
+        final AtomicReferenceArray<AtomicReferenceArray<Event>> directory = chunks;
+        if (slot < 0 || slot >>> CHUNK_BITS >= directory.length()) {
+            return null;
+        }
+        final AtomicReferenceArray<Event> chunk = directory.get((int) (slot >>> CHUNK_BITS));
+        return chunk != null ? chunk.getAndSet((int) slot & CHUNK_MASK, null) : null;
+    }
+
+    private long slot(final long eventId) {
+        final long offset = eventId - first;
+        return offset >= 0 && offset % stride == 0 ? offset / stride : -1;
+    }
+
+    private AtomicReferenceArray<Event> chunk(final int index) {
+        AtomicReferenceArray<AtomicReferenceArray<Event>> directory = chunks;
+        if (index >= directory.length()) {
+            // ids grow monotonically, so doubling keeps the copies rare
+            final AtomicReferenceArray<AtomicReferenceArray<Event>> grown =
+                    new AtomicReferenceArray<>(Math.max(index + 1, directory.length() * 2));
+            for (int i = 0; i < directory.length(); i++) {
+                grown.set(i, directory.get(i));
+            }
+            chunks = grown;
+            directory = grown;
+        }
+        AtomicReferenceArray<Event> chunk = directory.get(index);
+        if (chunk == null) {
+            chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+            directory.set(index, chunk);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import lombok.NonNull;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// waits for the next version of an event, see EventService.watch
+public class EventWatch {
+
+    private final long eventId;
+    private final long afterVersion;
+    private final Consumer<Optional<Event>> callback;
+    private final EventWatches watches;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    EventWatch(final long eventId, final long afterVersion, @NonNull final Consumer<Optional<Event>> callback,
+               @NonNull final EventWatches watches) {
+        this.eventId = eventId;
+        this.afterVersion = afterVersion;
+        this.callback = callback;
+        this.watches = watches;
+    }
+
+    public void cancel() {
+        if (done.compareAndSet(false, true)) {
+            watches.remove(this);
+        }
+    }
+
+    long getEventId() {
+        return eventId;
+    }
+
+    // the callback gets the newer event or nothing if it was deleted, but only once
+    void offer(@NonNull final Optional<Event> event) {
+        if (event.isPresent() && event.get().getVersion() <= afterVersion) {
+            return;
+        }
+        if (done.compareAndSet(false, true)) {
+            watches.remove(this);
+            callback.accept(event);
+        }
+    }
+
+}
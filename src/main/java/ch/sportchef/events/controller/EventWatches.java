@@ -0,0 +1,69 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventChange;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// the pending watches by event id, notified by the change feed
+class EventWatches {
+
+    private final Map<Long, Set<EventWatch>> watches = new ConcurrentHashMap<>();
+
+    EventWatch add(final long eventId, final long afterVersion, @NonNull final Consumer<Optional<Event>> callback) {
+        final EventWatch watch = new EventWatch(eventId, afterVersion, callback, this);
+        watches.compute(eventId, (id, eventWatches) -> {
+            final Set<EventWatch> set = eventWatches != null ? eventWatches : ConcurrentHashMap.newKeySet();
+            set.add(watch);
+            return set;
+        });
+        return watch;
+    }
+
+    void changed(@NonNull final EventChange change) {
+        if (change.getEvent() == null) {
+            return; // a reset of the feed doesn't tell which events changed
+        }
+        final Set<EventWatch> eventWatches = watches.get(change.getEvent().getEventId());
+        if (eventWatches != null) {
+            final Optional<Event> event = change.getType() == EventChange.Type.DELETED
+                    ? Optional.empty() : Optional.of(change.getEvent());
+            new ArrayList<>(eventWatches).forEach(watch -> watch.offer(event));
+        }
+    }
+
+    int size() {
+        return watches.values().stream().mapToInt(Set::size).sum();
+    }
+
+    void remove(@NonNull final EventWatch watch) {
+        watches.computeIfPresent(watch.getEventId(), (id, eventWatches) -> {
+            eventWatches.remove(watch);
+            return eventWatches.isEmpty() ? null : eventWatches;
+        });
+    }
+
+}
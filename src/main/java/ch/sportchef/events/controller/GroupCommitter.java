@@ -0,0 +1,124 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+@Slf4j
+class GroupCommitter<O, R> implements AutoCloseable {
+
+    private static final int MAX_GROUP_SIZE = 1000;
+
+    private final Function<List<O>, List<R>> commit;
+    private final long windowNanos;
+    private final BlockingQueue<PendingOperation<O, R>> queue = new LinkedBlockingQueue<>();
+    private final Thread committerThread;
+    private volatile boolean running = true;
+
+    GroupCommitter(@NonNull final String name, @NonNull final Function<List<O>, List<R>> commit,
+                   final long windowMillis) {
+        this.commit = commit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.committerThread = new Thread(this::run, name);
+        this.committerThread.setDaemon(true);
+        this.committerThread.start();
+    }
+
+    CompletableFuture<R> submit(@NonNull final O operation) {
+        final PendingOperation<O, R> pendingOperation = new PendingOperation<>(operation, new CompletableFuture<>());
+        queue.add(pendingOperation);
+        if (!running && queue.remove(pendingOperation)) {
+            pendingOperation.getResult().completeExceptionally(new IllegalStateException("Group committer is closed."));
+        }
+        return pendingOperation.getResult();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        committerThread.interrupt();
+        try {
+            committerThread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final List<PendingOperation<O, R>> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pendingOperation -> pendingOperation.getResult()
+                .completeExceptionally(new IllegalStateException("Group committer is closed.")));
+    }
+
+    // operations queued while a group is committed always go into the next group,
+    // a positive window additionally waits for more operations to arrive
+    private void run() {
+        while (running) {
+            try {
+                commit(collect());
+            } catch (final InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private List<PendingOperation<O, R>> collect() throws InterruptedException {
+        final List<PendingOperation<O, R>> group = new ArrayList<>();
+        group.add(queue.take());
+        final long deadline = System.nanoTime() + windowNanos;
+        long remaining = windowNanos;
+        while (remaining > 0 && group.size() < MAX_GROUP_SIZE) {
+            final PendingOperation<O, R> pendingOperation = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (pendingOperation == null) {
+                break;
+            }
+            group.add(pendingOperation);
+            remaining = deadline - System.nanoTime();
+        }
+        queue.drainTo(group, MAX_GROUP_SIZE - group.size());
+        return group;
+    }
+
+    private void commit(@NonNull final List<PendingOperation<O, R>> group) {
+        try {
+            final List<R> results = commit.apply(group.stream().map(PendingOperation::getOperation).collect(toList()));
+            for (int index = 0; index < group.size(); index++) {
+                group.get(index).getResult().complete(results.get(index));
+            }
+        } catch (final Throwable e) { // even an error must not leave the submitters waiting forever
+            log.error("Committing a group of {} operations failed.", group.size(), e); //NON-NLS
+            group.forEach(pendingOperation -> pendingOperation.getResult().completeExceptionally(e));
+        }
+    }
+
+    @Value
+    private static class PendingOperation<O, R> {
+        private O operation;
+        private CompletableFuture<R> result;
+    }
+}
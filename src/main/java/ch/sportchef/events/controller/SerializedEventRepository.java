@@ -0,0 +1,121 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventCodec;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// serialized form of the repository, see EventRepository.writeReplace
+@Slf4j
+class SerializedEventRepository implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    // 1: sequences and events, 2: adds the number of shards, 3: locations as codes of a dictionary
+    private static final byte FORMAT_VERSION = 3;
+
+    private long eventSequence;
+    private long modificationSequence;
+    private int shards;
+    private List<Event> events;
+    private transient long readStart;
+
+    public SerializedEventRepository() {
+        // needed for deserialization
+    }
+
+    SerializedEventRepository(final long eventSequence, final long modificationSequence, final int shards,
+                              @NonNull final List<Event> events) {
+        this.eventSequence = eventSequence;
+        this.modificationSequence = modificationSequence;
+        this.shards = shards;
+        this.events = events;
+    }
+
+    @Override
+    public void writeExternal(@NonNull final ObjectOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(eventSequence);
+        out.writeLong(modificationSequence);
+        out.writeInt(shards);
+        // a few venues are shared by many events, so every location is only written once
+        final Map<String, Integer> locationCodes = new LinkedHashMap<>();
+        for (final Event event : events) {
+            if (event.getLocation() != null) {
+                locationCodes.computeIfAbsent(event.getLocation(), location -> locationCodes.size());
+            }
+        }
+        out.writeInt(locationCodes.size());
+        for (final String location : locationCodes.keySet()) {
+            EventCodec.writeString(out, location);
+        }
+        out.writeInt(events.size());
+        for (final Event event : events) {
+            EventCodec.write(out, event, locationCodes::get);
+        }
+    }
+
+    @Override
+    public void readExternal(@NonNull final ObjectInput in) throws IOException {
+        readStart = System.nanoTime();
+        final byte formatVersion = in.readByte();
+        if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+            throw new InvalidObjectException(String.format("Unknown repository format version %d!", formatVersion)); //NON-NLS
+        }
+        eventSequence = in.readLong();
+        modificationSequence = in.readLong();
+        shards = formatVersion >= 2 ? in.readInt() : 1;
+        final String[] locations = formatVersion >= 3 ? readLocations(in) : null;
+        final int size = in.readInt();
+        events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            events.add(locations != null ? EventCodec.read(in, code -> locations[code]) : EventCodec.read(in));
+        }
+    }
+
+    private static String[] readLocations(@NonNull final ObjectInput in) throws IOException {
+        final String[] locations = new String[in.readInt()];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = EventCodec.readString(in);
+        }
+        return locations;
+    }
+
+    private Object readResolve() {
+        final long decoded = System.nanoTime();
+        final EventRepository eventRepository = EventRepository.restore(eventSequence, modificationSequence, shards, events);
+        log.info("Restored {} events from the snapshot, decoding took {} ms and indexing {} ms.", //NON-NLS
+                events.size(), TimeUnit.NANOSECONDS.toMillis(decoded - readStart),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - decoded));
+        return eventRepository;
+    }
+
+}
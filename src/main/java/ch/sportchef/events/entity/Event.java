@@ -49,4 +49,9 @@ public class Event implements Serializable {
 
     private Long version;
 
+    // streams written before the compact format still use the default serialized form
+    private Object writeReplace() {
+        return new SerializedEvent(this);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.entity;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+// compact binary form of an event: a flag byte tells which optional values follow
+@UtilityClass
+public class EventCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final int HAS_EVENT_ID = 1;
+    private static final int HAS_VERSION = 1 << 1;
+    private static final int HAS_DATE = 1 << 2;
+    private static final int HAS_TIME = 1 << 3;
+    private static final int HAS_NANOS = 1 << 4;
+
+    public static void write(@NonNull final DataOutput out, @NonNull final Event event) throws IOException {
+        writeEvent(out, event, null);
+    }
+
+    // writes the location as its code in a dictionary instead of the string, see read(DataInput, IntFunction)
+    public static void write(@NonNull final DataOutput out, @NonNull final Event event,
+                             @NonNull final ToIntFunction<String> locationCodes) throws IOException {
+        writeEvent(out, event, locationCodes);
+    }
+
+    public static Event read(@NonNull final DataInput in) throws IOException {
+        return readEvent(in, null);
+    }
+
+    public static Event read(@NonNull final DataInput in, @NonNull final IntFunction<String> locations) throws IOException {
+        return readEvent(in, locations);
+    }
+
+    private static void writeEvent(@NonNull final DataOutput out, @NonNull final Event event,
+                                   final ToIntFunction<String> locationCodes) throws IOException {
+        final LocalTime time = event.getTime();
+        out.writeByte((event.getEventId() != null ? HAS_EVENT_ID : 0)
+                | (event.getVersion() != null ? HAS_VERSION : 0)
+                | (event.getDate() != null ? HAS_DATE : 0)
+                | (time != null ? HAS_TIME : 0)
+                | (time != null && time.getNano() != 0 ? HAS_NANOS : 0));
+        if (event.getEventId() != null) {
+            out.writeLong(event.getEventId());
+        }
+        if (event.getVersion() != null) {
+            out.writeLong(event.getVersion());
+        }
+        writeString(out, event.getTitle());
+        if (locationCodes == null) {
+            writeString(out, event.getLocation());
+        } else {
+            out.writeInt(event.getLocation() != null ? locationCodes.applyAsInt(event.getLocation()) : -1);
+        }
+        if (event.getDate() != null) {
+            out.writeLong(event.getDate().toEpochDay());
+        }
+        if (time != null) {
+            out.writeInt(time.toSecondOfDay());
+            if (time.getNano() != 0) {
+                out.writeInt(time.getNano());
+            }
+        }
+    }
+
+    private static Event readEvent(@NonNull final DataInput in, final IntFunction<String> locations) throws IOException {
+        final int flags = in.readUnsignedByte();
+        final Event.EventBuilder event = Event.builder();
+        if ((flags & HAS_EVENT_ID) != 0) {
+            event.eventId(in.readLong());
+        }
+        if ((flags & HAS_VERSION) != 0) {
+            event.version(in.readLong());
+        }
+        event.title(readString(in));
+        if (locations == null) {
+            event.location(readString(in));
+        } else {
+            final int code = in.readInt();
+            event.location(code >= 0 ? locations.apply(code) : null);
+        }
+        if ((flags & HAS_DATE) != 0) {
+            event.date(LocalDate.ofEpochDay(in.readLong()));
+        }
+        if ((flags & HAS_TIME) != 0) {
+            final LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+            event.time((flags & HAS_NANOS) != 0 ? time.withNano(in.readInt()) : time);
+        }
+        return event.build();
+    }
+
+    // length prefixed UTF-8, -1 marks null
+    public static void writeString(@NonNull final DataOutput out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    public static String readString(@NonNull final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.entity;
+
+import lombok.Builder;
+import lombok.Value;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+
+@Value
+@Builder
+public class EventOperation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    @NotNull
+    private Type type;
+
+    private Long eventId;
+
+    @Valid
+    private Event event;
+
+}
@@ -0,0 +1,43 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.entity;
+
+import lombok.Value;
+
+@Value
+public class EventOperationResult {
+
+    public enum Outcome { OK, NOT_FOUND, CONFLICT }
+
+    private Outcome outcome;
+
+    private Event event;
+
+    public static EventOperationResult ok(final Event event) {
+        return new EventOperationResult(Outcome.OK, event);
+    }
+
+    public static EventOperationResult notFound() {
+        return new EventOperationResult(Outcome.NOT_FOUND, null);
+    }
+
+    public static EventOperationResult conflict() {
+        return new EventOperationResult(Outcome.CONFLICT, null);
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.entity;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.SortedMap;
+
+@Value
+public class EventStats {
+
+    private long total;
+
+    // the number of events per day and per location, days and locations without events are left out
+    private SortedMap<LocalDate, Long> dates;
+
+    private SortedMap<String, Long> locations;
+
+}
@@ -0,0 +1,62 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.entity;
+
+import lombok.NonNull;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+// serialized form of an event, see Event.writeReplace
+class SerializedEvent implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Event event;
+
+    public SerializedEvent() {
+        // needed for deserialization
+    }
+
+    SerializedEvent(@NonNull final Event event) {
+        this.event = event;
+    }
+
+    @Override
+    public void writeExternal(@NonNull final ObjectOutput out) throws IOException {
+        out.writeByte(EventCodec.FORMAT_VERSION);
+        EventCodec.write(out, event);
+    }
+
+    @Override
+    public void readExternal(@NonNull final ObjectInput in) throws IOException {
+        final byte formatVersion = in.readByte();
+        if (formatVersion != EventCodec.FORMAT_VERSION) {
+            throw new InvalidObjectException(String.format("Unknown event format version %d!", formatVersion)); //NON-NLS
+        }
+        event = EventCodec.read(in);
+    }
+
+    private Object readResolve() {
+        return event;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class MetricsTest {
+
+    private final Metrics metrics = new Metrics();
+
+    @Test
+    public void requests() throws NoSuchMethodException {
+        // arrange
+        final String endpoint = "endpoint=\"MetricsTest.requests\"";
+
+        // act
+        metrics.recordRequest(MetricsTest.class.getMethod("requests"), 200, 1_000);
+        metrics.recordRequest(MetricsTest.class.getMethod("requests"), 200, TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordRequest(MetricsTest.class.getMethod("requests"), 404, TimeUnit.MINUTES.toNanos(1));
+        metrics.recordRequest(null, 404, 1_000);
+        final String scrape = metrics.scrape();
+
+        // assert
+        assertThat(scrape, containsString("sportchef_events_request_duration_seconds_bucket{" + endpoint + ",le=\"0.000001024\"} 1\n"));
+        assertThat(scrape, containsString("sportchef_events_request_duration_seconds_bucket{" + endpoint + ",le=\"0.004194304\"} 2\n"));
+        assertThat(scrape, containsString("sportchef_events_request_duration_seconds_bucket{" + endpoint + ",le=\"34.359738368\"} 2\n"));
+        assertThat(scrape, containsString("sportchef_events_request_duration_seconds_bucket{" + endpoint + ",le=\"+Inf\"} 3\n"));
+        assertThat(scrape, containsString("sportchef_events_request_duration_seconds_sum{" + endpoint + "} 60.003001000\n"));
+        assertThat(scrape, containsString("sportchef_events_request_duration_seconds_count{" + endpoint + "} 3\n"));
+        assertThat(scrape, containsString("sportchef_events_requests_total{" + endpoint + ",status=\"200\"} 2\n"));
+        assertThat(scrape, containsString("sportchef_events_requests_total{" + endpoint + ",status=\"404\"} 1\n"));
+        assertThat(scrape, containsString("sportchef_events_requests_total{endpoint=\"unmatched\",status=\"404\"} 1\n"));
+    }
+
+    @Test
+    public void errorsAndStore() {
+        // arrange
+
+        // act
+        metrics.recordError(409);
+        metrics.recordError(409);
+        metrics.recordStoreQuery(500);
+        metrics.recordStorePersist(TimeUnit.MILLISECONDS.toNanos(2));
+        final String scrape = metrics.scrape();
+
+        // assert
+        assertThat(scrape, containsString("sportchef_events_errors_total{status=\"409\"} 2\n"));
+        assertThat(scrape, not(containsString("sportchef_events_errors_total{status=\"500\"}")));
+        assertThat(scrape, containsString("sportchef_events_store_duration_seconds_count{operation=\"query\"} 1\n"));
+        assertThat(scrape, containsString("sportchef_events_store_duration_seconds_bucket{operation=\"persist\",le=\"0.002097152\"} 1\n"));
+        assertThat(scrape, containsString("sportchef_events_store_duration_seconds_bucket{operation=\"persist\",le=\"0.001048576\"} 0\n"));
+    }
+
+    @Test
+    public void executionAndJournaling() {
+        // arrange
+        metrics.recordStoreExecution(TimeUnit.MILLISECONDS.toNanos(50)); // replayed
+
+        // act
+        metrics.startStorePersist();
+        metrics.recordStoreExecution(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordStorePersist(TimeUnit.MILLISECONDS.toNanos(5));
+        final String scrape = metrics.scrape();
+
+        // assert
+        assertThat(scrape, containsString("sportchef_events_store_duration_seconds_count{operation=\"execute\"} 1\n"));
+        assertThat(scrape, containsString("sportchef_events_store_duration_seconds_sum{operation=\"execute\"} 0.003000000\n"));
+        assertThat(scrape, containsString("sportchef_events_store_duration_seconds_sum{operation=\"journal\"} 0.002000000\n"));
+        assertThat(scrape, containsString("sportchef_events_store_duration_seconds_sum{operation=\"persist\"} 0.005000000\n"));
+    }
+
+    @Test
+    public void stores() throws IOException {
+        // arrange
+        final Path store = Files.createTempDirectory("sportchef-events-test");
+        try {
+            Files.write(store.resolve("0000000000000000002.snapshot"), new byte[10]);
+            Files.write(store.resolve("0000000000000000003.journal"), new byte[20]);
+            Files.setLastModifiedTime(store.resolve("0000000000000000002.snapshot"), FileTime.fromMillis(1_500_000_000_000L));
+
+            // act
+            metrics.registerStore("test", store, TimeUnit.MILLISECONDS.toNanos(1_250));
+            final String scrape = metrics.scrape();
+
+            // assert
+            assertThat(scrape, containsString("sportchef_events_store_journal_files{store=\"test\"} 1\n"));
+            assertThat(scrape, containsString("sportchef_events_store_journal_bytes{store=\"test\"} 20\n"));
+            assertThat(scrape, containsString("sportchef_events_store_snapshot_bytes{store=\"test\"} 10\n"));
+            assertThat(scrape, containsString("sportchef_events_store_snapshot_timestamp_seconds{store=\"test\"} 1500000000.000\n"));
+            assertThat(scrape, containsString("sportchef_events_store_load_duration_seconds{store=\"test\"} 1.250000000\n"));
+        } finally {
+            metrics.stopLogging();
+            try (Stream<Path> files = Files.list(store)) {
+                files.map(Path::toFile).forEach(File::delete);
+            }
+            Files.delete(store);
+        }
+    }
+
+    @Test
+    public void stopLogging() throws IOException, InterruptedException {
+        // arrange
+        final Path store = Files.createTempDirectory("sportchef-events-test");
+        try {
+            final long threadsBefore = loggerThreads();
+            metrics.registerStore("test", store, 0);
+            final long threadsLogging = loggerThreads();
+
+            // act
+            metrics.stopLogging();
+            long threadsAfter = loggerThreads();
+            for (int wait = 0; wait < 100 && threadsAfter > threadsBefore; wait++) {
+                Thread.sleep(50);
+                threadsAfter = loggerThreads();
+            }
+
+            // assert
+            assertThat(threadsLogging, is(threadsBefore + 1));
+            assertThat(threadsAfter, is(threadsBefore));
+        } finally {
+            Files.delete(store);
+        }
+    }
+
+    private static long loggerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && "persistence-metrics".equals(thread.getName()))
+                .count();
+    }
+
+}
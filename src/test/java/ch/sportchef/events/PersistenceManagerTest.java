@@ -0,0 +1,112 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.setblack.airomem.core.SimpleController;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+public class PersistenceManagerTest {
+
+    private Path tempDir;
+    private String originalUserHome;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("sportchef-events-test");
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", tempDir.resolve("home").toString());
+        System.setProperty(PersistenceManager.PERSISTENCE_ROOT_PROPERTY, tempDir.resolve("root").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        System.clearProperty(PersistenceManager.PERSISTENCE_ROOT_PROPERTY);
+        System.setProperty("user.home", originalUserHome);
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void storeBelowConfiguredRoot() {
+        // arrange
+        final SimpleController<HashMap<String, String>> controller =
+                PersistenceManager.createSimpleController(HashMap.class, HashMap::new);
+
+        // act
+        controller.execute(map -> {
+            map.put("key", "value");
+        });
+        controller.close();
+
+        // assert
+        assertThat(Files.isDirectory(tempDir.resolve("root").resolve(HashMap.class.getName())), is(true));
+        final SimpleController<HashMap<String, String>> reloaded =
+                PersistenceManager.createSimpleController(HashMap.class, HashMap::new);
+        assertThat(reloaded.readOnly(), hasEntry("key", "value"));
+        reloaded.shut();
+    }
+
+    @Test
+    public void separateStorePerTenant() {
+        // arrange
+        final SimpleController<HashMap<String, String>> clubA =
+                PersistenceManager.createSimpleController(HashMap.class, "club-a", HashMap::new);
+        final SimpleController<HashMap<String, String>> clubB =
+                PersistenceManager.createSimpleController(HashMap.class, "club-b", HashMap::new);
+
+        // act
+        clubA.execute(map -> {
+            map.put("club", "a");
+        });
+        clubB.execute(map -> {
+            map.put("club", "b");
+        });
+
+        // assert
+        assertThat(clubA.readOnly(), hasEntry("club", "a"));
+        assertThat(clubB.readOnly(), hasEntry("club", "b"));
+        assertThat(Files.isDirectory(tempDir.resolve("root").resolve("club-a").resolve(HashMap.class.getName())), is(true));
+        assertThat(Files.isDirectory(tempDir.resolve("root").resolve("club-b").resolve(HashMap.class.getName())), is(true));
+        clubA.shut();
+        clubB.shut();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTenant() {
+        // act
+        PersistenceManager.createSimpleController(HashMap.class, "../club", HashMap::new);
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.setblack.airomem.core.SimpleController;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+public class ReplicaControllerTest {
+
+    private Path tempDir;
+    private Path store;
+    private String originalUserHome;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("sportchef-events-test");
+        store = tempDir.resolve("root").resolve(HashMap.class.getName());
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", tempDir.resolve("home").toString());
+        System.setProperty(PersistenceManager.PERSISTENCE_ROOT_PROPERTY, tempDir.resolve("root").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        System.clearProperty(PersistenceManager.PERSISTENCE_ROOT_PROPERTY);
+        System.setProperty("user.home", originalUserHome);
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void followJournal() throws IOException, ClassNotFoundException {
+        // arrange
+        final SimpleController<HashMap<String, String>> primary =
+                PersistenceManager.createSimpleController(HashMap.class, HashMap::new);
+        primary.execute(map -> {
+            map.put("first", "1");
+        });
+        final ReplicaController<HashMap<String, String>> replica =
+                new ReplicaController<>("replica", store, HashMap::new);
+
+        // act
+        primary.execute(map -> {
+            map.put("second", "2");
+        });
+        final int applied = replica.update();
+
+        // assert
+        assertThat(applied, is(1));
+        assertThat(replica.readOnly(), hasEntry("first", "1"));
+        assertThat(replica.readOnly(), hasEntry("second", "2"));
+        assertThat(replica.update(), is(0));
+        replica.close();
+        primary.shut();
+    }
+
+    @Test
+    public void followRestartedPrimary() throws IOException, ClassNotFoundException {
+        // arrange
+        final SimpleController<HashMap<String, String>> primary =
+                PersistenceManager.createSimpleController(HashMap.class, HashMap::new);
+        primary.execute(map -> {
+            map.put("first", "1");
+        });
+        final ReplicaController<HashMap<String, String>> replica =
+                new ReplicaController<>("replica", store, HashMap::new);
+        primary.shut();
+
+        // act
+        final SimpleController<HashMap<String, String>> restarted =
+                PersistenceManager.createSimpleController(HashMap.class, HashMap::new);
+        restarted.execute(map -> {
+            map.put("second", "2");
+        });
+        final int applied = replica.update();
+
+        // assert
+        assertThat(applied, is(1));
+        assertThat(replica.readOnly(), hasEntry("second", "2"));
+        replica.close();
+        restarted.shut();
+    }
+
+    @Test
+    public void reloadSnapshotAfterPrunedJournal() throws IOException, ClassNotFoundException {
+        // arrange
+        final SimpleController<HashMap<String, String>> primary =
+                PersistenceManager.createSimpleController(HashMap.class, HashMap::new);
+        primary.execute(map -> {
+            map.put("first", "1");
+        });
+        final ReplicaController<HashMap<String, String>> replica =
+                new ReplicaController<>("replica", store, HashMap::new);
+        primary.execute(map -> {
+            map.put("second", "2");
+        });
+        primary.shut();
+        final SimpleController<HashMap<String, String>> restarted =
+                PersistenceManager.createSimpleController(HashMap.class, HashMap::new);
+        restarted.execute(map -> {
+            map.put("third", "3");
+        });
+        new SnapshotScheduler("primary", restarted, store, 0, 1).check();
+        assertThat(Files.exists(store.resolve("0000000000000000001.journal")), is(false));
+
+        // act
+        replica.update();
+
+        // assert
+        assertThat(replica.readOnly(), hasEntry("second", "2"));
+        assertThat(replica.readOnly(), hasEntry("third", "3"));
+        replica.close();
+        restarted.shut();
+    }
+
+}
@@ -17,6 +17,11 @@
  */
 package ch.sportchef.events;
 
+import ch.sportchef.events.boundary.EventNotFoundException;
+import ch.sportchef.events.controller.EventConflictException;
+import ch.sportchef.events.controller.ReadOnlyReplicaException;
+import ch.sportchef.events.controller.StartupFailedException;
+import ch.sportchef.events.controller.StartupInProgressException;
 import lombok.NonNull;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,15 +29,19 @@ import org.junit.runners.Parameterized;
 
 import javax.json.Json;
 import javax.json.JsonObject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.Response;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.FORBIDDEN;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -49,6 +58,14 @@ public class RuntimeExceptionMapperTest {
         return Arrays.asList(new Object[][]{
                 { new ConcurrentModificationException("Foobar"), "Foobar", CONFLICT },
                 { new NotFoundException("Foobar"),               "Foobar", NOT_FOUND },
+                { new BadRequestException("Foobar"),             "Foobar", BAD_REQUEST },
+                { new StartupInProgressException("Foobar"),      "Foobar", SERVICE_UNAVAILABLE },
+                { new StartupFailedException("Foobar"),          "Foobar", SERVICE_UNAVAILABLE },
+                { new ReadOnlyReplicaException("Foobar"),        "Foobar", FORBIDDEN },
+                { new EventConflictException("Foobar"),          "Foobar", CONFLICT },
+                { new EventNotFoundException(1L),                "Event with id '1' not found.", NOT_FOUND },
+                { new RuntimeException(new NotFoundException("Foobar")), "Foobar", NOT_FOUND },
+                { new RuntimeException("Foo \"bar\"\n"),        "Foo \"bar\"\n", INTERNAL_SERVER_ERROR },
                 { new RuntimeException("Foobar"),                "Foobar", INTERNAL_SERVER_ERROR }
         });
     }
@@ -75,7 +92,7 @@ public class RuntimeExceptionMapperTest {
 
         // assert
         assertThat(response.getStatus(), is(this.status.getStatusCode()));
-        assertThat(response.getEntity(), equalTo(expectedEntity));
+        assertThat(response.getEntity(), equalTo(expectedEntity.toString()));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.setblack.airomem.core.SimpleController;
+import pl.setblack.airomem.core.disk.PersistenceDiskHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class SnapshotSchedulerTest {
+
+    private static final String DIR = "sportchef" + File.separator + "snapshot-test";
+
+    private Path userHome;
+    private String originalUserHome;
+
+    @Before
+    public void setUp() throws IOException {
+        userHome = Files.createTempDirectory("sportchef-events-test");
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        System.setProperty("user.home", originalUserHome);
+        try (Stream<Path> paths = Files.walk(userHome)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    private void put(final SimpleController<HashMap<String, String>> controller, final String key) {
+        controller.execute(map -> {
+            map.put(key, key);
+        });
+    }
+
+    private List<String> storeFiles() throws IOException {
+        try (Stream<Path> files = Files.list(PersistenceDiskHelper.calcUserPath(DIR))) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void snapshotWhenJournalGrows() throws IOException {
+        // arrange
+        final SimpleController<HashMap<String, String>> controller = SimpleController.loadOptional(DIR, HashMap::new);
+        final SnapshotScheduler scheduler = new SnapshotScheduler("test", controller,
+                PersistenceDiskHelper.calcUserPath(DIR), 0, 1);
+        put(controller, "first");
+        put(controller, "second");
+
+        // act
+        final boolean snapshotTaken = scheduler.check();
+        final boolean snapshotRepeated = scheduler.check();
+
+        // assert
+        assertThat(snapshotTaken, is(true));
+        assertThat(snapshotRepeated, is(false));
+        assertThat(storeFiles().contains("0000000000000000002.snapshot"), is(true));
+        controller.shut();
+    }
+
+    @Test
+    public void noSnapshotBeforeIntervalElapsed() throws IOException {
+        // arrange
+        final SimpleController<HashMap<String, String>> controller = SimpleController.loadOptional(DIR, HashMap::new);
+        final SnapshotScheduler scheduler = new SnapshotScheduler("test", controller,
+                PersistenceDiskHelper.calcUserPath(DIR), 60_000, 0);
+        put(controller, "first");
+
+        // act
+        final boolean snapshotTaken = scheduler.check();
+
+        // assert
+        assertThat(snapshotTaken, is(false));
+        controller.shut();
+    }
+
+    @Test
+    public void pruneObsoleteFiles() throws IOException {
+        // arrange
+        final SimpleController<HashMap<String, String>> firstRun = SimpleController.loadOptional(DIR, HashMap::new);
+        put(firstRun, "first");
+        firstRun.close();
+        final SimpleController<HashMap<String, String>> secondRun = SimpleController.loadOptional(DIR, HashMap::new);
+        put(secondRun, "second");
+        final SnapshotScheduler scheduler = new SnapshotScheduler("test", secondRun,
+                PersistenceDiskHelper.calcUserPath(DIR), 0, 1);
+
+        // act
+        scheduler.check();
+        secondRun.shut();
+        final SimpleController<HashMap<String, String>> thirdRun = SimpleController.loadOptional(DIR, HashMap::new);
+
+        // assert
+        assertThat(storeFiles(), containsInAnyOrder("0000000000000000002.snapshot", "0000000000000000002.journal"));
+        assertThat(thirdRun.readOnly().keySet(), containsInAnyOrder("first", "second"));
+        thirdRun.shut();
+    }
+
+}
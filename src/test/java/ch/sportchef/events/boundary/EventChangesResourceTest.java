@@ -0,0 +1,90 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.controller.EventChangeListener;
+import ch.sportchef.events.controller.EventService;
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventChange;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.needle4j.annotation.ObjectUnderTest;
+import org.needle4j.junit.NeedleRule;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+
+public class EventChangesResourceTest {
+
+    @Rule
+    public NeedleRule needleRule = new NeedleRule();
+
+    @Inject
+    private EventService eventService;
+
+    @ObjectUnderTest(postConstruct = true)
+    private EventChangesResource eventChangesResource;
+
+    private final EventChange testChange = new EventChange(2, EventChange.Type.CREATED, Event.builder()
+            .eventId(1L)
+            .title("Testevent")
+            .location("Testlocation")
+            .date(LocalDate.of(2099, Month.DECEMBER, 31))
+            .time(LocalTime.of(22, 0))
+            .version(1L)
+            .build());
+
+    @Test
+    public void followChanges() throws IOException {
+        // arrange
+        final ArgumentCaptor<EventChangeListener> listener = ArgumentCaptor.forClass(EventChangeListener.class);
+
+        // act
+        final EventOutput eventOutput = eventChangesResource.follow("1-1");
+
+        // assert
+        verify(eventService).followChanges(eq("1-1"), listener.capture());
+        listener.getValue().changed("1-2", testChange);
+        assertThat(eventOutput.isClosed(), is(false));
+    }
+
+    @Test(expected = IOException.class)
+    public void stopFollowingWhenClosed() throws IOException {
+        // arrange
+        final ArgumentCaptor<EventChangeListener> listener = ArgumentCaptor.forClass(EventChangeListener.class);
+        final EventOutput eventOutput = eventChangesResource.follow(null);
+        verify(eventService).followChanges(eq(null), listener.capture());
+        eventOutput.close();
+
+        // act
+        listener.getValue().changed("1-2", testChange);
+
+        // assert
+    }
+
+}
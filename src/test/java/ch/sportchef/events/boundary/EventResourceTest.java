@@ -18,14 +18,20 @@
 package ch.sportchef.events.boundary;
 
 import ch.sportchef.events.controller.EventService;
+import ch.sportchef.events.controller.EventWatch;
 import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperationResult;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.needle4j.annotation.ObjectUnderTest;
 import org.needle4j.junit.NeedleRule;
 
 import javax.inject.Inject;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -36,10 +42,15 @@ import java.time.LocalTime;
 import java.time.Month;
 import java.util.ConcurrentModificationException;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class EventResourceTest {
@@ -53,6 +64,9 @@ public class EventResourceTest {
     @Inject
     private UriInfo info;
 
+    @Inject
+    private Request request;
+
     @ObjectUnderTest(postConstruct = true)
     private EventResource eventResource;
 
@@ -65,15 +79,40 @@ public class EventResourceTest {
                 .location("Testlocation")
                 .date(LocalDate.of(2099, Month.DECEMBER, 31))
                 .time(LocalTime.of(22, 0))
+                .version(1L)
                 .build();
         when(eventService.read(1L)).thenReturn(Optional.of(testEvent));
 
         // act
-        final Response response = eventResource.read(1L);
+        final Response response = eventResource.read(1L, request);
 
         // assert
         assertThat(response.getStatus(), is(200));
         assertThat(response.getEntity(), is(testEvent));
+        assertThat(response.getEntityTag(), is(new EntityTag("1")));
+    }
+
+    @Test
+    public void readNotModifiedEvent() {
+        // arrange
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .version(1L)
+                .build();
+        when(eventService.read(1L)).thenReturn(Optional.of(testEvent));
+        when(request.evaluatePreconditions(new EntityTag("1")))
+                .thenReturn(Response.notModified(new EntityTag("1")));
+
+        // act
+        final Response response = eventResource.read(1L, request);
+
+        // assert
+        assertThat(response.getStatus(), is(304));
+        assertThat(response.hasEntity(), is(false));
     }
 
     @Test(expected = NotFoundException.class)
@@ -82,9 +121,53 @@ public class EventResourceTest {
         when(eventService.read(1L)).thenReturn(Optional.empty());
 
         // act
-        eventResource.read(1L);
+        eventResource.read(1L, request);
+
+        // assert
+    }
+
+    @Test
+    public void watchUpdatedEvent() {
+        // arrange
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .version(2L)
+                .build();
+        when(eventService.watch(eq(1L), eq(1L), any())).thenAnswer(invocation -> {
+            ((Consumer<Optional<Event>>) invocation.getArguments()[2]).accept(Optional.of(testEvent));
+            return mock(EventWatch.class);
+        });
+        final AsyncResponse asyncResponse = mock(AsyncResponse.class);
+
+        // act
+        eventResource.read(1L, 1L, 30, request, asyncResponse);
+
+        // assert
+        final ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse).setTimeout(30, TimeUnit.SECONDS);
+        verify(asyncResponse).resume(response.capture());
+        assertThat(response.getValue().getStatus(), is(200));
+        assertThat(response.getValue().getEntity(), is(testEvent));
+    }
+
+    @Test
+    public void watchDeletedEvent() {
+        // arrange
+        when(eventService.watch(eq(1L), eq(1L), any())).thenAnswer(invocation -> {
+            ((Consumer<Optional<Event>>) invocation.getArguments()[2]).accept(Optional.empty());
+            return mock(EventWatch.class);
+        });
+        final AsyncResponse asyncResponse = mock(AsyncResponse.class);
+
+        // act
+        eventResource.read(1L, 1L, 30, request, asyncResponse);
 
         // assert
+        verify(asyncResponse).resume(any(NotFoundException.class));
     }
 
     @Test
@@ -97,15 +180,17 @@ public class EventResourceTest {
                 .date(LocalDate.of(2099, Month.DECEMBER, 31))
                 .time(LocalTime.of(22, 0))
                 .build();
-        when(eventService.read(1L)).thenReturn(Optional.of(testEvent));
+        when(eventService.update(testEvent)).thenReturn(EventOperationResult.ok(testEvent.toBuilder().version(2L).build()));
         final UriBuilder uriBuilder = mock(UriBuilder.class);
         when(uriBuilder.build()).thenReturn(new URI("/event/1"));
         when(info.getAbsolutePathBuilder()).thenReturn(uriBuilder);
 
         // act
-        eventResource.update(1L, testEvent, info);
+        final Response response = eventResource.update(1L, testEvent, info);
 
         // assert
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getEntityTag(), is(new EntityTag("2")));
     }
 
     @Test(expected = NotFoundException.class)
@@ -118,7 +203,7 @@ public class EventResourceTest {
                 .date(LocalDate.of(2099, Month.DECEMBER, 31))
                 .time(LocalTime.of(22, 0))
                 .build();
-        when(eventService.read(1L)).thenReturn(Optional.empty());
+        when(eventService.update(testEvent)).thenReturn(EventOperationResult.notFound());
 
         // act
         eventResource.update(1L, testEvent, info);
@@ -136,8 +221,7 @@ public class EventResourceTest {
                 .date(LocalDate.of(2099, Month.DECEMBER, 31))
                 .time(LocalTime.of(22, 0))
                 .build();
-        when(eventService.read(1L)).thenReturn(Optional.of(testEvent));
-        when(eventService.update(testEvent)).thenThrow(ConcurrentModificationException.class);
+        when(eventService.update(testEvent)).thenReturn(EventOperationResult.conflict());
 
         // act
         eventResource.update(1L, testEvent, info);
@@ -155,7 +239,7 @@ public class EventResourceTest {
                 .date(LocalDate.of(2099, Month.DECEMBER, 31))
                 .time(LocalTime.of(22, 0))
                 .build();
-        when(eventService.read(1L)).thenReturn(Optional.of(testEvent));
+        when(eventService.delete(1L)).thenReturn(EventOperationResult.ok(testEvent));
 
         // act
         final Response response = eventResource.delete(1L);
@@ -167,7 +251,7 @@ public class EventResourceTest {
     @Test(expected = NotFoundException.class)
     public void deleteNonExistingEvent() {
         // arrange
-        when(eventService.read(1L)).thenReturn(Optional.empty());
+        when(eventService.delete(1L)).thenReturn(EventOperationResult.notFound());
 
         // act
         eventResource.delete(1L);
@@ -0,0 +1,88 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.controller.EventService;
+import ch.sportchef.events.entity.EventStats;
+import com.google.common.collect.ImmutableSortedMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.needle4j.annotation.ObjectUnderTest;
+import org.needle4j.junit.NeedleRule;
+
+import javax.inject.Inject;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.time.Month;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventStatsResourceTest {
+
+    @Rule
+    public NeedleRule needleRule = new NeedleRule();
+
+    @Inject
+    private EventService eventService;
+
+    @Inject
+    private Request request;
+
+    @ObjectUnderTest(postConstruct = true)
+    private EventStatsResource eventStatsResource;
+
+    @Test
+    public void readStats() {
+        // arrange
+        final EventStats stats = new EventStats(1L,
+                ImmutableSortedMap.of(LocalDate.of(2099, Month.DECEMBER, 31), 1L),
+                ImmutableSortedMap.of("Testlocation", 1L));
+        when(eventService.readModification()).thenReturn(7L);
+        when(eventService.readStats()).thenReturn(stats);
+
+        // act
+        final Response response = eventStatsResource.read(request);
+
+        // assert
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getEntity(), is(stats));
+        assertThat(response.getEntityTag(), is(new EntityTag("7")));
+    }
+
+    @Test
+    public void readNotModifiedStats() {
+        // arrange
+        when(eventService.readModification()).thenReturn(7L);
+        when(request.evaluatePreconditions(new EntityTag("7")))
+                .thenReturn(Response.notModified(new EntityTag("7")));
+
+        // act
+        final Response response = eventStatsResource.read(request);
+
+        // assert
+        assertThat(response.getStatus(), is(304));
+        verify(eventService, never()).readStats();
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.entity.Event;
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+
+public class EventStreamingOutputTest {
+
+    @Test
+    public void writeEvents() throws IOException {
+        // arrange
+        final Event event1 = Event.builder()
+                .eventId(1L)
+                .title("Testevent 1")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .version(1L)
+                .build();
+        final Event event2 = event1.toBuilder()
+                .eventId(2L)
+                .title("Testevent 2")
+                .build();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // act
+        new EventStreamingOutput(Stream.of(event1, event2)).write(output);
+
+        // assert
+        final String json = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(json, is(new Gson().toJson(new Event[]{event1, event2})));
+        assertThat(new Gson().fromJson(json, Event[].class), is(arrayContaining(event1, event2)));
+    }
+
+    @Test
+    public void writeNoEvents() throws IOException {
+        // arrange
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // act
+        new EventStreamingOutput(Stream.empty()).write(output);
+
+        // assert
+        final String json = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(new Gson().fromJson(json, Event[].class), is(emptyArray()));
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.boundary;
+
+import ch.sportchef.events.controller.EventService;
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.needle4j.annotation.ObjectUnderTest;
+import org.needle4j.junit.NeedleRule;
+
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+public class EventsBatchResourceTest {
+
+    @Rule
+    public NeedleRule needleRule = new NeedleRule();
+
+    @Inject
+    private EventService eventService;
+
+    @ObjectUnderTest(postConstruct = true)
+    private EventsBatchResource eventsBatchResource;
+
+    private final Event testEvent = Event.builder()
+            .title("Testevent")
+            .location("Testlocation")
+            .date(LocalDate.of(2099, Month.DECEMBER, 31))
+            .time(LocalTime.of(22, 0))
+            .build();
+
+    @Test
+    public void applyOperations() {
+        // arrange
+        final List<EventOperation> operations = ImmutableList.of(
+                EventOperation.builder().type(EventOperation.Type.CREATE).event(testEvent).build(),
+                EventOperation.builder().type(EventOperation.Type.DELETE).eventId(1L).build());
+        final List<EventOperationResult> results = ImmutableList.of(
+                EventOperationResult.ok(testEvent.toBuilder().eventId(2L).version(1L).build()),
+                EventOperationResult.notFound());
+        when(eventService.apply(operations)).thenReturn(results);
+
+        // act
+        final Response response = eventsBatchResource.apply(operations);
+
+        // assert
+        assertThat(response.getStatus(), is(200));
+        assertThat((List<EventOperationResult>) response.getEntity(), contains(results.toArray()));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void applyOperationWithoutType() {
+        // arrange
+        final List<EventOperation> operations = ImmutableList.of(
+                EventOperation.builder().event(testEvent).build());
+
+        // act
+        eventsBatchResource.apply(operations);
+
+        // assert
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void applyCreateWithoutEvent() {
+        // arrange
+        final List<EventOperation> operations = ImmutableList.of(
+                EventOperation.builder().type(EventOperation.Type.CREATE).build());
+
+        // act
+        eventsBatchResource.apply(operations);
+
+        // assert
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void applyUpdateWithoutEventId() {
+        // arrange
+        final List<EventOperation> operations = ImmutableList.of(
+                EventOperation.builder().type(EventOperation.Type.UPDATE).event(testEvent).build());
+
+        // act
+        eventsBatchResource.apply(operations);
+
+        // assert
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void applyDeleteWithoutEventId() {
+        // arrange
+        final List<EventOperation> operations = ImmutableList.of(
+                EventOperation.builder().type(EventOperation.Type.DELETE).build());
+
+        // act
+        eventsBatchResource.apply(operations);
+
+        // assert
+    }
+
+}
@@ -17,6 +17,8 @@
  */
 package ch.sportchef.events.boundary;
 
+import ch.sportchef.events.controller.EventCursor;
+import ch.sportchef.events.controller.EventFilter;
 import ch.sportchef.events.controller.EventService;
 import ch.sportchef.events.entity.Event;
 import com.google.common.collect.ImmutableList;
@@ -26,7 +28,11 @@ import org.needle4j.annotation.ObjectUnderTest;
 import org.needle4j.junit.NeedleRule;
 
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.net.URI;
@@ -35,13 +41,19 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Month;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static java.lang.Boolean.TRUE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class EventsResourceTest {
@@ -55,6 +67,9 @@ public class EventsResourceTest {
     @Inject
     private UriInfo info;
 
+    @Inject
+    private Request request;
+
     @ObjectUnderTest(postConstruct = true)
     private EventsResource eventsResource;
 
@@ -93,15 +108,33 @@ public class EventsResourceTest {
                 .time(LocalTime.of(22, 0))
                 .build();
         when(eventService.read()).thenReturn(ImmutableList.of(testEvent));
+        when(eventService.readModification()).thenReturn(1L);
 
         // act
-        final Response response = eventsResource.read();
+        final Response response = eventsResource.read(null, null, null, null, null, false, request, info);
 
         // assert
         final List<Event> events = (List<Event>) response.getEntity();
         assertThat(events.size(), is(1));
         assertThat(events, contains(testEvent));
         assertThat(response.getStatus(), is(200));
+        assertThat(response.getEntityTag(), is(new EntityTag("1")));
+    }
+
+    @Test
+    public void readAllEventsNotModified() {
+        // arrange
+        when(eventService.readModification()).thenReturn(1L);
+        when(request.evaluatePreconditions(new EntityTag("1")))
+                .thenReturn(Response.notModified(new EntityTag("1")));
+
+        // act
+        final Response response = eventsResource.read(null, null, null, null, null, false, request, info);
+
+        // assert
+        assertThat(response.getStatus(), is(304));
+        assertThat(response.hasEntity(), is(false));
+        verify(eventService, never()).read();
     }
 
     @Test
@@ -110,7 +143,7 @@ public class EventsResourceTest {
         when(eventService.read()).thenReturn(ImmutableList.of());
 
         // act
-        final Response response = eventsResource.read();
+        final Response response = eventsResource.read(null, null, null, null, null, false, request, info);
 
         // assert
         final List<Event> events = (List<Event>) response.getEntity();
@@ -118,4 +151,147 @@ public class EventsResourceTest {
         assertThat(response.getStatus(), is(200));
     }
 
+    @Test
+    public void readFirstPage() throws URISyntaxException {
+        // arrange
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        when(eventService.read(EventFilter.NONE, 1)).thenReturn(ImmutableList.of(testEvent));
+        final UriBuilder uriBuilder = mock(UriBuilder.class);
+        final URI uri = new URI("/events?limit=1&cursor=next");
+        when(uriBuilder.replaceQueryParam("cursor", EventCursor.of(testEvent).encode())).thenReturn(uriBuilder);
+        when(uriBuilder.build()).thenReturn(uri);
+        when(info.getRequestUriBuilder()).thenReturn(uriBuilder);
+
+        // act
+        final Response response = eventsResource.read(null, null, null, null, 1, false, request, info);
+
+        // assert
+        final List<Event> events = (List<Event>) response.getEntity();
+        assertThat(events, contains(testEvent));
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getLink("next").getUri(), is(uri));
+    }
+
+    @Test
+    public void readLastPage() {
+        // arrange
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        final EventCursor cursor = new EventCursor(LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(8, 0), 2L);
+        when(eventService.read(eq(EventFilter.NONE), eq(cursor), eq(10))).thenReturn(ImmutableList.of(testEvent));
+
+        // act
+        final Response response = eventsResource.read(null, null, null, cursor.encode(), 10, false, request, info);
+
+        // assert
+        final List<Event> events = (List<Event>) response.getEntity();
+        assertThat(events, contains(testEvent));
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getLink("next"), is(nullValue()));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void readPageWithInvalidCursor() {
+        // arrange
+
+        // act
+        eventsResource.read(null, null, null, "invalid", 10, false, request, info);
+
+        // assert
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void readPageWithInvalidLimit() {
+        // arrange
+
+        // act
+        eventsResource.read(null, null, null, null, 0, false, request, info);
+
+        // assert
+    }
+
+    @Test
+    public void readByDateRangeAndLocation() {
+        // arrange
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        final EventFilter filter = EventFilter.builder()
+                .from(LocalDate.of(2099, Month.DECEMBER, 1))
+                .to(LocalDate.of(2099, Month.DECEMBER, 31))
+                .location("Testlocation")
+                .build();
+        when(eventService.read(filter, Integer.MAX_VALUE)).thenReturn(ImmutableList.of(testEvent));
+
+        // act
+        final Response response = eventsResource.read("2099-12-01", "2099-12-31", "Testlocation", null, null, false, request, info);
+
+        // assert
+        final List<Event> events = (List<Event>) response.getEntity();
+        assertThat(events, contains(testEvent));
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getLink("next"), is(nullValue()));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void readWithInvalidDate() {
+        // arrange
+
+        // act
+        eventsResource.read("2099-13-01", null, null, null, null, false, request, info);
+
+        // assert
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void readWithEmptyDateRange() {
+        // arrange
+
+        // act
+        eventsResource.read("2099-12-31", "2099-12-01", null, null, null, false, request, info);
+
+        // assert
+    }
+
+    @Test
+    public void readStreaming() {
+        // arrange
+        final EventFilter filter = EventFilter.builder()
+                .location("Testlocation")
+                .build();
+        when(eventService.stream(filter)).thenReturn(Stream.empty());
+
+        // act
+        final Response response = eventsResource.read(null, null, "Testlocation", null, null, true, request, info);
+
+        // assert
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getEntity(), is(instanceOf(StreamingOutput.class)));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void readStreamingWithPagination() {
+        // arrange
+
+        // act
+        eventsResource.read(null, null, null, null, 10, true, request, info);
+
+        // assert
+    }
+
 }
\ No newline at end of file
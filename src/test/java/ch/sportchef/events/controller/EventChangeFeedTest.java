@@ -0,0 +1,184 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventChange;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+
+public class EventChangeFeedTest {
+
+    private final EventChangeFeed changeFeed = new EventChangeFeed(2, 10);
+
+    private final Event testEvent = Event.builder()
+            .eventId(1L)
+            .title("Testevent")
+            .location("Testlocation")
+            .date(LocalDate.of(2099, Month.DECEMBER, 31))
+            .time(LocalTime.of(22, 0))
+            .version(1L)
+            .build();
+
+    @After
+    public void tearDown() {
+        changeFeed.close();
+    }
+
+    private BlockingQueue<String> follow(final String lastId) {
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        changeFeed.subscribe(lastId, (id, change) -> received.add(id + " " + change.getType()));
+        return received;
+    }
+
+    private String next(final BlockingQueue<String> received) throws InterruptedException {
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void followNewChanges() throws InterruptedException {
+        // arrange
+        changeFeed.publish(EventChange.Type.CREATED, testEvent);
+        final BlockingQueue<String> received = follow(null);
+
+        // act
+        changeFeed.publish(EventChange.Type.UPDATED, testEvent);
+        changeFeed.publish(EventChange.Type.DELETED, testEvent);
+
+        // assert
+        assertThat(next(received), endsWith("-2 UPDATED"));
+        assertThat(next(received), endsWith("-3 DELETED"));
+    }
+
+    @Test
+    public void resumeAfterLastId() throws InterruptedException {
+        // arrange
+        final BlockingQueue<String> first = follow(null);
+        changeFeed.publish(EventChange.Type.CREATED, testEvent);
+        changeFeed.publish(EventChange.Type.UPDATED, testEvent);
+        final String lastId = next(first).split(" ")[0];
+
+        // act
+        final BlockingQueue<String> resumed = follow(lastId);
+        changeFeed.publish(EventChange.Type.DELETED, testEvent);
+
+        // assert
+        assertThat(next(resumed), endsWith("-2 UPDATED"));
+        assertThat(next(resumed), endsWith("-3 DELETED"));
+        assertThat(resumed.isEmpty(), is(true));
+    }
+
+    @Test
+    public void resetAfterMissedChanges() throws InterruptedException {
+        // arrange
+        final BlockingQueue<String> first = follow(null);
+        changeFeed.publish(EventChange.Type.CREATED, testEvent);
+        changeFeed.publish(EventChange.Type.UPDATED, testEvent);
+        changeFeed.publish(EventChange.Type.UPDATED, testEvent);
+        changeFeed.publish(EventChange.Type.DELETED, testEvent);
+        final String lastId = next(first).split(" ")[0];
+
+        // act
+        final BlockingQueue<String> resumed = follow(lastId);
+
+        // assert
+        assertThat(next(resumed), endsWith("-4 RESET"));
+    }
+
+    @Test
+    public void resetForIdOfEarlierFeed() throws InterruptedException {
+        // arrange
+        changeFeed.publish(EventChange.Type.CREATED, testEvent);
+
+        // act
+        final BlockingQueue<String> received = follow("42-1");
+
+        // assert
+        assertThat(next(received), endsWith("-1 RESET"));
+    }
+
+    @Test
+    public void dropListenerFallingBehind() throws InterruptedException {
+        // arrange
+        final EventChangeFeed limitedFeed = new EventChangeFeed(10, 1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch dropped = new CountDownLatch(1);
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        limitedFeed.subscribe(null, new EventChangeListener() {
+            @Override
+            public void changed(final String id, final EventChange change) throws IOException {
+                received.add(id + " " + change.getType());
+                try {
+                    blocked.await();
+                } catch (final InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+
+            @Override
+            public void dropped() {
+                dropped.countDown();
+            }
+        });
+
+        // act
+        try {
+            limitedFeed.publish(EventChange.Type.CREATED, testEvent);
+            final String firstId = next(received).split(" ")[0];
+            limitedFeed.publish(EventChange.Type.UPDATED, testEvent);
+            limitedFeed.publish(EventChange.Type.UPDATED, testEvent);
+            limitedFeed.publish(EventChange.Type.DELETED, testEvent);
+            // the notifier hands out the changes before it serves this subscription
+            final CountDownLatch notified = new CountDownLatch(1);
+            limitedFeed.subscribe(firstId, new EventChangeListener() {
+                @Override
+                public void changed(final String id, final EventChange change) {
+                    notified.countDown();
+                }
+
+                @Override
+                public void dropped() {
+                    notified.countDown();
+                }
+            });
+            assertThat(notified.await(5, TimeUnit.SECONDS), is(true));
+            blocked.countDown();
+
+            // assert
+            assertThat(dropped.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(received.isEmpty(), is(true));
+        } finally {
+            limitedFeed.close();
+        }
+    }
+
+}
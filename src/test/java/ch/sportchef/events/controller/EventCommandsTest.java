@@ -0,0 +1,125 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.setblack.airomem.core.SimpleController;
+import pl.setblack.airomem.core.disk.PersistenceDiskHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+// the journals were written without closing the store, so every change has to be replayed from them
+public class EventCommandsTest {
+
+    private static final String DIR = "sportchef" + File.separator + "journal-test";
+
+    private Path userHome;
+    private String originalUserHome;
+
+    @Before
+    public void setUp() throws IOException {
+        userHome = Files.createTempDirectory("sportchef-events-test");
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        System.setProperty("user.home", originalUserHome);
+        try (Stream<Path> paths = Files.walk(userHome)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        }
+    }
+
+    private SimpleController<EventRepository> load(final String journal) throws IOException {
+        final Path store = PersistenceDiskHelper.calcUserPath(DIR);
+        Files.createDirectories(store);
+        for (final String file : new String[] {"0000000000000000000.snapshot", "0000000000000000001.journal"}) {
+            try (InputStream in = getClass().getResourceAsStream(journal + "/" + file)) {
+                Files.copy(in, store.resolve(file));
+            }
+        }
+        return SimpleController.loadOptional(DIR, EventRepository::new);
+    }
+
+    @Test
+    public void replayLegacyJournal() throws IOException {
+        // arrange
+        final SimpleController<EventRepository> controller = load("legacy-journal");
+
+        // act
+        final List<Event> events = controller.readOnly().read();
+        final List<EventOperationResult> results = controller.executeAndQuery(EventCommands.apply(singletonList(
+                EventOperation.builder()
+                        .type(EventOperation.Type.UPDATE)
+                        .eventId(2L)
+                        .event(events.get(1).toBuilder().title("Final Match").build())
+                        .build())));
+
+        // assert
+        assertThat(events, contains(
+                Event.builder().eventId(1L).title("Opening").location("Stadium")
+                        .date(LocalDate.of(2099, Month.JUNE, 1)).time(LocalTime.of(18, 0)).build(),
+                Event.builder().eventId(2L).title("Grand Final").location("Arena")
+                        .date(LocalDate.of(2099, Month.JUNE, 2)).time(LocalTime.of(20, 0)).build()));
+        assertThat(events.get(0).getVersion(), is(-1694806931L)); // hash code based back then
+        assertThat(events.get(1).getVersion(), is(-186644141L));
+        assertThat(results.get(0).getOutcome(), is(EventOperationResult.Outcome.OK));
+        assertThat(results.get(0).getEvent().getVersion(), greaterThan(0L));
+        controller.shut();
+    }
+
+    @Test
+    public void replayBatchJournal() throws IOException {
+        // arrange
+        final SimpleController<EventRepository> controller = load("batch-journal");
+
+        // act
+        final List<Event> events = controller.readOnly().read();
+
+        // assert
+        assertThat(events, contains(Event.builder().eventId(1L).title("Big Opening").location("Stadium")
+                .date(LocalDate.of(2099, Month.JUNE, 1)).time(LocalTime.of(18, 0)).build()));
+        assertThat(events.get(0).getVersion(), is(2L));
+        controller.shut();
+    }
+
+}
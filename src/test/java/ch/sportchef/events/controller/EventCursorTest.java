@@ -0,0 +1,87 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Base64;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class EventCursorTest {
+
+    @Test
+    public void ofEvent() {
+        // arrange
+        final Event event = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+
+        // act
+        final EventCursor cursor = EventCursor.of(event);
+
+        // assert
+        assertThat(cursor.getEventId(), is(1L));
+        assertThat(cursor.getDate(), is(LocalDate.of(2099, Month.DECEMBER, 31)));
+        assertThat(cursor.getTime(), is(LocalTime.of(22, 0)));
+    }
+
+    @Test
+    public void encodeAndParse() {
+        // arrange
+        final EventCursor cursor = new EventCursor(LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(22, 0, 1, 2), 3L);
+
+        // act
+        final EventCursor parsedCursor = EventCursor.parse(cursor.encode());
+
+        // assert
+        assertThat(parsedCursor, is(cursor));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseMalformedCursor() {
+        // arrange
+
+        // act
+        EventCursor.parse("not a cursor");
+
+        // assert
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseIncompleteCursor() {
+        // arrange
+        final String cursor = Base64.getUrlEncoder().encodeToString("1:2".getBytes(StandardCharsets.UTF_8));
+
+        // act
+        EventCursor.parse(cursor);
+
+        // assert
+    }
+
+}
@@ -19,15 +19,29 @@ package ch.sportchef.events.controller;
 
 
 import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
+import ch.sportchef.events.entity.EventStats;
+import com.google.common.collect.ImmutableSortedMap;
 import lombok.NonNull;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Month;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -36,6 +50,7 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class EventRepositoryTest {
 
@@ -50,6 +65,23 @@ public class EventRepositoryTest {
         return eventRepository.create(baseEvent);
     }
 
+    private Event createEvent(@NonNull final EventRepository eventRepository,
+                              @NonNull final LocalDate date, @NonNull final LocalTime time) {
+        return createEvent(eventRepository, "Testlocation", date, time);
+    }
+
+    private Event createEvent(@NonNull final EventRepository eventRepository, @NonNull final String location,
+                              @NonNull final LocalDate date, @NonNull final LocalTime time) {
+        final Event baseEvent = Event.builder()
+                .title("Testevent")
+                .location(location)
+                .date(date)
+                .time(time)
+                .build();
+
+        return eventRepository.create(baseEvent);
+    }
+
     @Test
     public void readByEventIdFound() {
         // arrange
@@ -91,6 +123,554 @@ public class EventRepositoryTest {
         assertThat(eventList, contains(event1, event2));
     }
 
+    @Test
+    public void readAllInChronologicalOrder() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(22, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(8, 0));
+        final Event event3 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(23, 0));
+
+        // act
+        final List<Event> eventList = eventRepository.read();
+
+        // assert
+        assertThat(eventList, contains(event3, event2, event1));
+    }
+
+    @Test
+    public void readAllAfterUpdate() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository);
+        final Event event2 = createEvent(eventRepository);
+        final Event eventToUpdate = event1.toBuilder()
+                .date(LocalDate.of(2100, Month.JANUARY, 1))
+                .build();
+
+        // act
+        final Event updatedEvent = eventRepository.update(eventToUpdate);
+        final List<Event> eventList = eventRepository.read();
+
+        // assert
+        assertThat(eventList, contains(event2, updatedEvent));
+    }
+
+    @Test
+    public void readAfterUpdateInPlace() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event = createEvent(eventRepository);
+        final Event eventToUpdate = event.toBuilder()
+                .title("Updated")
+                .build();
+
+        // act
+        final Event updatedEvent = eventRepository.update(eventToUpdate);
+        final List<Event> eventList = eventRepository.read();
+        final List<Event> eventsAtLocation = eventRepository.read(EventFilter.builder().location("Testlocation").build(), 10);
+
+        // assert
+        assertThat(eventList, contains(updatedEvent));
+        assertThat(eventsAtLocation, contains(updatedEvent));
+        assertThat(eventRepository.readStats().getTotal(), is(1L));
+    }
+
+    @Test
+    public void readAfterUpdateWithoutChanges() throws IOException, ClassNotFoundException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event = createEvent(eventRepository);
+
+        // act
+        final Event updatedEvent = eventRepository.update(event);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(eventRepository);
+        }
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+
+        // assert
+        assertThat(eventRepository.read(), contains(updatedEvent));
+        assertThat(eventRepository.read().get(0).getVersion(), is(updatedEvent.getVersion()));
+        assertThat(eventRepository.read(EventFilter.builder().location("Testlocation").build(), 10), contains(updatedEvent));
+        assertThat(eventRepository.readStats().getTotal(), is(1L));
+        assertThat(eventRepository.readStats().getLocations().get("Testlocation"), is(1L));
+        assertThat(createEvent(eventRepository).getLocation(), sameInstance(updatedEvent.getLocation()));
+        assertThat(restoredRepository.read(), contains(updatedEvent));
+    }
+
+    @Test
+    public void statsAfterUpdateInPlaceToOtherLocation() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 1), LocalTime.MIN);
+
+        // act
+        final Event updatedEvent = eventRepository.update(event.toBuilder().location("Zurich").build());
+        final EventStats stats = eventRepository.readStats();
+
+        // assert
+        assertThat(eventRepository.read(), contains(updatedEvent));
+        assertThat(stats.getTotal(), is(1L));
+        assertThat(stats.getLocations(), is(ImmutableSortedMap.of("Zurich", 1L)));
+    }
+
+    @Test
+    public void readWhileUpdating() throws InterruptedException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event = createEvent(eventRepository);
+        final EventFilter filter = EventFilter.builder().location("Testlocation").build();
+        final AtomicBoolean updating = new AtomicBoolean(true);
+        final AtomicInteger misses = new AtomicInteger();
+        final Thread reader = new Thread(() -> {
+            while (updating.get()) {
+                if (eventRepository.stream(filter).noneMatch(found -> found.getEventId().equals(event.getEventId()))) {
+                    misses.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+
+        // act
+        Event currentEvent = event;
+        for (int i = 0; i < 10_000; i++) {
+            currentEvent = eventRepository.update(currentEvent.toBuilder()
+                    .date(currentEvent.getDate().plusDays(i % 2 == 0 ? 1 : 0))
+                    .title("Update " + i)
+                    .build());
+        }
+        updating.set(false);
+        reader.join();
+
+        // assert
+        assertThat(misses.get(), is(0));
+        assertThat(eventRepository.read(filter, 10), contains(currentEvent));
+    }
+
+    @Test
+    public void readAllAfterDelete() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository);
+        final Event event2 = createEvent(eventRepository);
+
+        // act
+        eventRepository.delete(event1.getEventId());
+        final List<Event> eventList = eventRepository.read();
+
+        // assert
+        assertThat(eventList, contains(event2));
+    }
+
+    @Test
+    public void readAllAfterDeserialization() throws IOException, ClassNotFoundException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(22, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(23, 0));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(eventRepository);
+        }
+
+        // act
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+
+        // assert
+        assertThat(restoredRepository.read(), contains(event2, event1));
+    }
+
+    @Test
+    public void readAllTwiceWithoutModification() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        createEvent(eventRepository);
+        final List<Event> firstEventList = eventRepository.read();
+
+        // act
+        final List<Event> secondEventList = eventRepository.read();
+
+        // assert
+        assertThat(secondEventList, is(sameInstance(firstEventList)));
+    }
+
+    @Test
+    public void readAllTwiceWithModification() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository);
+        final List<Event> firstEventList = eventRepository.read();
+
+        // act
+        final Event event2 = createEvent(eventRepository);
+        final List<Event> secondEventList = eventRepository.read();
+
+        // assert
+        assertThat(firstEventList, contains(event1));
+        assertThat(secondEventList, contains(event1, event2));
+    }
+
+    @Test
+    public void readFirstPage() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository);
+        final Event event2 = createEvent(eventRepository);
+        createEvent(eventRepository);
+
+        // act
+        final List<Event> eventList = eventRepository.read(EventFilter.NONE, 2);
+
+        // assert
+        assertThat(eventList, contains(event1, event2));
+    }
+
+    @Test
+    public void readPageAfterCursor() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(22, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(8, 0));
+        final Event event3 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(23, 0));
+
+        // act
+        final List<Event> eventList = eventRepository.read(EventFilter.NONE, EventCursor.of(event3), 5);
+
+        // assert
+        assertThat(eventList, contains(event2, event1));
+    }
+
+    @Test
+    public void readPageAfterDeletedCursor() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository);
+        final Event event2 = createEvent(eventRepository);
+        final Event event3 = createEvent(eventRepository);
+        eventRepository.delete(event2.getEventId());
+
+        // act
+        final List<Event> eventList = eventRepository.read(EventFilter.NONE, EventCursor.of(event2), 5);
+
+        // assert
+        assertThat(eventList, contains(event3));
+    }
+
+    @Test
+    public void readByDateRange() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 1), LocalTime.of(23, 0));
+        final Event event2 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 2), LocalTime.MIN);
+        final Event event3 = createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 3), LocalTime.MAX);
+        createEvent(eventRepository, LocalDate.of(2099, Month.JANUARY, 4), LocalTime.of(0, 0));
+        final EventFilter filter = EventFilter.builder()
+                .from(LocalDate.of(2099, Month.JANUARY, 2))
+                .to(LocalDate.of(2099, Month.JANUARY, 3))
+                .build();
+
+        // act
+        final List<Event> eventList = eventRepository.read(filter, 10);
+
+        // assert
+        assertThat(eventList, contains(event2, event3));
+    }
+
+    @Test
+    public void readByLocation() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 2), LocalTime.MIN);
+        createEvent(eventRepository, "Zurich", LocalDate.of(2099, Month.JANUARY, 3), LocalTime.MIN);
+        final Event event3 = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 1), LocalTime.MIN);
+        final EventFilter filter = EventFilter.builder()
+                .location("Bern")
+                .build();
+
+        // act
+        final List<Event> eventList = eventRepository.read(filter, 10);
+
+        // assert
+        assertThat(eventList, contains(event3, event1));
+    }
+
+    @Test
+    public void readByLocationAndDateRangeWithCursor() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 1), LocalTime.MIN);
+        final Event event2 = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 2), LocalTime.MIN);
+        final Event event3 = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 2), LocalTime.NOON);
+        createEvent(eventRepository, "Zurich", LocalDate.of(2099, Month.JANUARY, 2), LocalTime.MIDNIGHT);
+        final EventFilter filter = EventFilter.builder()
+                .from(LocalDate.of(2099, Month.JANUARY, 2))
+                .location("Bern")
+                .build();
+
+        // act
+        final List<Event> eventList = eventRepository.read(filter, EventCursor.of(event2), 10);
+
+        // assert
+        assertThat(eventList, contains(event3));
+    }
+
+    @Test
+    public void readByUnknownLocation() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        createEvent(eventRepository);
+        final EventFilter filter = EventFilter.builder()
+                .location("Unknown")
+                .build();
+
+        // act
+        final List<Event> eventList = eventRepository.read(filter, 10);
+
+        // assert
+        assertThat(eventList.isEmpty(), is(true));
+    }
+
+    @Test
+    public void readByLocationAfterUpdate() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 1), LocalTime.MIN);
+        final Event updatedEvent = eventRepository.update(event.toBuilder().location("Zurich").build());
+
+        // act
+        final List<Event> eventsInBern = eventRepository.read(EventFilter.builder().location("Bern").build(), 10);
+        final List<Event> eventsInZurich = eventRepository.read(EventFilter.builder().location("Zurich").build(), 10);
+
+        // assert
+        assertThat(eventsInBern.isEmpty(), is(true));
+        assertThat(eventsInZurich, contains(updatedEvent));
+    }
+
+    @Test
+    public void readByLocationAfterDeserialization() throws IOException, ClassNotFoundException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 1), LocalTime.MIN);
+        createEvent(eventRepository, "Zurich", LocalDate.of(2099, Month.JANUARY, 1), LocalTime.MIN);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(eventRepository);
+        }
+
+        // act
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+
+        // assert
+        assertThat(restoredRepository.read(EventFilter.builder().location("Bern").build(), 10), contains(event));
+    }
+
+    @Test
+    public void canonicalLocations() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final LocalDate date = LocalDate.of(2099, Month.DECEMBER, 31);
+        final LocalTime time = LocalTime.of(22, 0);
+
+        // act
+        final Event event1 = createEvent(eventRepository, new String("Testlocation"), date, time);
+        final Event event2 = createEvent(eventRepository, new String("Testlocation"), date, time);
+        final Event event3 = eventRepository.update(event1.toBuilder().location(new String("Testlocation")).build());
+
+        // assert
+        assertThat(event2.getLocation(), sameInstance(event1.getLocation()));
+        assertThat(event3.getLocation(), sameInstance(event1.getLocation()));
+    }
+
+    @Test
+    public void canonicalLocationsAfterSerialization() throws IOException, ClassNotFoundException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final LocalDate date = LocalDate.of(2099, Month.DECEMBER, 31);
+        createEvent(eventRepository, "Location A", date, LocalTime.of(20, 0));
+        createEvent(eventRepository, "Location B", date, LocalTime.of(21, 0));
+        createEvent(eventRepository, "Location A", date, LocalTime.of(22, 0));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(eventRepository);
+        }
+
+        // act
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+        final List<Event> events = restoredRepository.read();
+        final Event event4 = createEvent(restoredRepository, new String("Location B"), date, LocalTime.of(23, 0));
+
+        // assert
+        assertThat(events.stream().map(Event::getLocation).collect(Collectors.toList()),
+                contains("Location A", "Location B", "Location A"));
+        assertThat(events.get(2).getLocation(), sameInstance(events.get(0).getLocation()));
+        assertThat(event4.getLocation(), sameInstance(events.get(1).getLocation()));
+    }
+
+    @Test
+    public void stats() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final LocalDate date1 = LocalDate.of(2099, Month.DECEMBER, 30);
+        final LocalDate date2 = LocalDate.of(2099, Month.DECEMBER, 31);
+        final Event event1 = createEvent(eventRepository, "Location A", date1, LocalTime.of(20, 0));
+        final Event event2 = createEvent(eventRepository, "Location B", date1, LocalTime.of(21, 0));
+        createEvent(eventRepository, "Location A", date2, LocalTime.of(22, 0));
+
+        // act
+        eventRepository.update(event1.toBuilder().location("Location C").date(date2).build());
+        eventRepository.delete(event2.getEventId());
+        final EventStats stats = eventRepository.readStats();
+
+        // assert
+        assertThat(stats.getTotal(), is(2L));
+        assertThat(stats.getDates(), equalTo(ImmutableSortedMap.of(date2, 2L)));
+        assertThat(stats.getLocations(), equalTo(ImmutableSortedMap.of("Location A", 1L, "Location C", 1L)));
+    }
+
+    @Test
+    public void statsAfterSerialization() throws IOException, ClassNotFoundException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final LocalDate date = LocalDate.of(2099, Month.DECEMBER, 31);
+        createEvent(eventRepository, "Location A", date, LocalTime.of(20, 0));
+        createEvent(eventRepository, "Location B", date, LocalTime.of(21, 0));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(eventRepository);
+        }
+
+        // act
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+
+        // assert
+        assertThat(restoredRepository.readStats(), equalTo(eventRepository.readStats()));
+    }
+
+    @Test
+    public void restoreAfterSerialization() throws IOException, ClassNotFoundException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository);
+        final Event event2 = createEvent(eventRepository);
+        eventRepository.delete(createEvent(eventRepository).getEventId());
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(eventRepository);
+        }
+
+        // act
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+        final Event event4 = createEvent(restoredRepository);
+
+        // assert
+        assertThat(restoredRepository.read(), contains(event1, event2, event4));
+        assertThat(event4.getEventId(), is(4L));
+        assertThat(restoredRepository.readModification(), is(5L));
+    }
+
+    @Test
+    public void restoreLegacySnapshot() throws IOException, ClassNotFoundException {
+        // arrange
+        final InputStream snapshot = getClass().getResourceAsStream("legacy-event-repository.ser");
+
+        // act
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(snapshot)) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+
+        // assert
+        assertThat(restoredRepository.read().stream().map(Event::getVersion).collect(Collectors.toList()),
+                contains(1L, 4L, 3L));
+        assertThat(restoredRepository.read(EventFilter.builder().location("Bern").build(), 10).size(), is(2));
+        assertThat(restoredRepository.readModification(), is(4L));
+        assertThat(restoredRepository.readShards(), is(1));
+        assertThat(createEvent(restoredRepository).getEventId(), is(4L));
+    }
+
+    @Test
+    public void interleavedIdsOfShard() throws IOException, ClassNotFoundException {
+        // arrange
+        final EventRepository eventRepository = new EventRepository(1, 3);
+        final Event event1 = createEvent(eventRepository);
+        final Event event2 = createEvent(eventRepository);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(eventRepository);
+        }
+
+        // act
+        final EventRepository restoredRepository;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredRepository = (EventRepository) in.readObject();
+        }
+        final Event event3 = createEvent(restoredRepository);
+
+        // assert
+        assertThat(event1.getEventId(), is(2L));
+        assertThat(event2.getEventId(), is(5L));
+        assertThat(event3.getEventId(), is(8L));
+        assertThat(restoredRepository.readShards(), is(3));
+    }
+
+    @Test
+    public void streamByLocation() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event event1 = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 2), LocalTime.MIN);
+        createEvent(eventRepository, "Zurich", LocalDate.of(2099, Month.JANUARY, 3), LocalTime.MIN);
+        final Event event3 = createEvent(eventRepository, "Bern", LocalDate.of(2099, Month.JANUARY, 1), LocalTime.MIN);
+
+        // act
+        final List<Event> eventList = eventRepository.stream(EventFilter.builder().location("Bern").build())
+                .collect(Collectors.toList());
+
+        // assert
+        assertThat(eventList, contains(event3, event1));
+    }
+
+    @Test
+    public void readModification() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final long initialModification = eventRepository.readModification();
+
+        // act
+        final Event event = createEvent(eventRepository);
+        final long modificationAfterCreate = eventRepository.readModification();
+        eventRepository.update(event.toBuilder().title("Changed Title").build());
+        final long modificationAfterUpdate = eventRepository.readModification();
+        eventRepository.delete(event.getEventId());
+        final long modificationAfterDelete = eventRepository.readModification();
+        eventRepository.delete(event.getEventId());
+
+        // assert
+        assertThat(modificationAfterCreate, is(initialModification + 1));
+        assertThat(modificationAfterUpdate, is(initialModification + 2));
+        assertThat(modificationAfterDelete, is(initialModification + 3));
+        assertThat(eventRepository.readModification(), is(modificationAfterDelete));
+    }
+
     @Test
     public void readAllNotFound() {
         // arrange
@@ -140,6 +720,37 @@ public class EventRepositoryTest {
         // assert
     }
 
+    @Test
+    public void versionsAreMonotonic() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+
+        // act
+        final Event event1 = createEvent(eventRepository);
+        final Event event2 = createEvent(eventRepository);
+        final Event updatedEvent1 = eventRepository.update(event1.toBuilder().title("Changed Title").build());
+
+        // assert
+        assertThat(event2.getVersion(), is(event1.getVersion() + 1));
+        assertThat(updatedEvent1.getVersion(), is(event2.getVersion() + 1));
+        assertThat(eventRepository.readModification(), is(updatedEvent1.getVersion()));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void updateWithConflictAfterRestoringPreviousValues() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event createdEvent = createEvent(eventRepository);
+        final Event changedEvent = eventRepository.update(createdEvent.toBuilder().title("Changed Title").build());
+        final Event restoredEvent = eventRepository.update(changedEvent.toBuilder().title(createdEvent.getTitle()).build());
+        assertThat(restoredEvent.getVersion(), is(not(equalTo(createdEvent.getVersion()))));
+
+        // act
+        eventRepository.update(createdEvent.toBuilder().title("Stale Title").build());
+
+        // assert
+    }
+
     @Test
     public void updateNonExistingEvent() {
         // arrange
@@ -184,4 +795,38 @@ public class EventRepositoryTest {
         assertThat(eventRepository.read(1L), is(Optional.empty()));
     }
 
+    @Test
+    public void applyOperations() {
+        // arrange
+        final EventRepository eventRepository = new EventRepository();
+        final Event existingEvent = createEvent(eventRepository);
+        final Event eventToDelete = createEvent(eventRepository);
+        final Event newEvent = existingEvent.toBuilder().eventId(null).title("New Event").build();
+        final List<EventOperation> operations = Arrays.asList(
+                EventOperation.builder().type(EventOperation.Type.CREATE).event(newEvent).build(),
+                EventOperation.builder().type(EventOperation.Type.UPDATE)
+                        .eventId(existingEvent.getEventId()).event(existingEvent.toBuilder().title("Changed").build()).build(),
+                EventOperation.builder().type(EventOperation.Type.UPDATE)
+                        .eventId(existingEvent.getEventId()).event(existingEvent.toBuilder().title("Stale").build()).build(),
+                EventOperation.builder().type(EventOperation.Type.UPDATE)
+                        .eventId(Long.MAX_VALUE).event(existingEvent).build(),
+                EventOperation.builder().type(EventOperation.Type.DELETE).eventId(eventToDelete.getEventId()).build(),
+                EventOperation.builder().type(EventOperation.Type.DELETE).eventId(eventToDelete.getEventId()).build());
+
+        // act
+        final List<EventOperationResult> results = eventRepository.apply(operations);
+
+        // assert
+        assertThat(results.size(), is(6));
+        assertThat(results.get(0).getOutcome(), is(EventOperationResult.Outcome.OK));
+        assertThat(results.get(0).getEvent().getTitle(), is("New Event"));
+        assertThat(results.get(1).getOutcome(), is(EventOperationResult.Outcome.OK));
+        assertThat(results.get(1).getEvent().getTitle(), is("Changed"));
+        assertThat(results.get(2).getOutcome(), is(EventOperationResult.Outcome.CONFLICT));
+        assertThat(results.get(3).getOutcome(), is(EventOperationResult.Outcome.NOT_FOUND));
+        assertThat(results.get(4).getOutcome(), is(EventOperationResult.Outcome.OK));
+        assertThat(results.get(5).getOutcome(), is(EventOperationResult.Outcome.NOT_FOUND));
+        assertThat(eventRepository.read(), contains(results.get(1).getEvent(), results.get(0).getEvent()));
+    }
+
 }
\ No newline at end of file
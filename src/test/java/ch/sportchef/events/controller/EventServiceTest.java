@@ -18,21 +18,34 @@
 package ch.sportchef.events.controller;
 
 import ch.sportchef.events.PersistenceManager;
+import ch.sportchef.events.ReplicaController;
 import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventOperation;
+import ch.sportchef.events.entity.EventOperationResult;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import pl.setblack.airomem.core.SimpleController;
-import pl.setblack.airomem.core.VoidCommand;
 
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Month;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -47,6 +60,9 @@ public class EventServiceTest {
     public void create() {
         // arrange
         final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
         mockStatic(PersistenceManager.class);
         when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
         final EventService eventService = new EventService();
@@ -58,11 +74,249 @@ public class EventServiceTest {
                 .time(LocalTime.of(22, 0))
                 .build();
 
+        final Event createdEvent = testEvent.toBuilder().eventId(1L).version(1L).build();
+        when(simpleControllerMock.executeAndQuery(anyObject()))
+                .thenReturn(Collections.singletonList(EventOperationResult.ok(createdEvent)));
+
         // act
-        eventService.create(testEvent);
+        final Event result = eventService.create(testEvent);
 
         // assert
         verify(simpleControllerMock, times(1)).executeAndQuery(anyObject());
+        assertThat(result, is(createdEvent));
+    }
+
+    @Test(expected = ReadOnlyReplicaException.class)
+    public void createOnReplica() {
+        // arrange
+        final ReplicaController<Serializable> replicaControllerMock = mock(ReplicaController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(replicaControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createReplicaController(any(), any())).thenReturn(replicaControllerMock);
+        System.setProperty(EventService.REPLICA_PROPERTY, "true");
+        final EventService eventService = new EventService();
+        try {
+            eventService.setupResources();
+        } finally {
+            System.clearProperty(EventService.REPLICA_PROPERTY);
+        }
+        final Event testEvent = Event.builder()
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+
+        // act
+        eventService.create(testEvent);
+
+        // assert
+    }
+
+    @Test
+    public void readWhileStartingUpAsynchronously() throws InterruptedException {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        final CountDownLatch loading = new CountDownLatch(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenAnswer(invocation -> {
+            loading.await();
+            return simpleControllerMock;
+        });
+        System.setProperty(EventService.ASYNC_STARTUP_PROPERTY, "true");
+        final EventService eventService = new EventService();
+        try {
+            eventService.setupResources();
+        } finally {
+            System.clearProperty(EventService.ASYNC_STARTUP_PROPERTY);
+        }
+
+        // act
+        boolean startupInProgress = false;
+        try {
+            eventService.read();
+        } catch (final StartupInProgressException e) {
+            startupInProgress = true;
+        }
+        loading.countDown();
+        while (true) {
+            try {
+                eventService.read();
+                break;
+            } catch (final StartupInProgressException e) {
+                Thread.sleep(10);
+            }
+        }
+
+        // assert
+        assertThat(startupInProgress, is(true));
+        verify(eventRepositoryMock, times(1)).read();
+    }
+
+    @Test
+    public void readAfterFailedAsynchronousStartup() throws InterruptedException {
+        // arrange
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenThrow(new IllegalStateException("Foobar"));
+        System.setProperty(EventService.ASYNC_STARTUP_PROPERTY, "true");
+        final EventService eventService = new EventService();
+        try {
+            eventService.setupResources();
+        } finally {
+            System.clearProperty(EventService.ASYNC_STARTUP_PROPERTY);
+        }
+
+        // act
+        RuntimeException failure = null;
+        while (failure == null || failure instanceof StartupInProgressException) {
+            Thread.sleep(10);
+            try {
+                eventService.read();
+                break;
+            } catch (final RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        // assert
+        assertThat(failure, instanceOf(StartupFailedException.class));
+    }
+
+    @Test
+    public void watchWhileStartingUpAsynchronously() throws InterruptedException {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .version(1L)
+                .build();
+        final Event updatedEvent = testEvent.toBuilder().version(2L).build();
+        when(eventRepositoryMock.read(1L)).thenReturn(Optional.of(testEvent));
+        when(simpleControllerMock.executeAndQuery(anyObject()))
+                .thenReturn(Collections.singletonList(EventOperationResult.ok(updatedEvent)));
+        final CountDownLatch loading = new CountDownLatch(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenAnswer(invocation -> {
+            loading.await();
+            return simpleControllerMock;
+        });
+        System.setProperty(EventService.ASYNC_STARTUP_PROPERTY, "true");
+        final EventService eventService = new EventService();
+        try {
+            eventService.setupResources();
+        } finally {
+            System.clearProperty(EventService.ASYNC_STARTUP_PROPERTY);
+        }
+        final List<Optional<Event>> failedWatchEvents = new CopyOnWriteArrayList<>();
+        final CountDownLatch watched = new CountDownLatch(1);
+
+        // act
+        boolean startupInProgress = false;
+        try {
+            eventService.watch(1L, 1L, failedWatchEvents::add);
+        } catch (final StartupInProgressException e) {
+            startupInProgress = true;
+        }
+        loading.countDown();
+        while (true) {
+            try {
+                eventService.read(1L);
+                break;
+            } catch (final StartupInProgressException e) {
+                Thread.sleep(10);
+            }
+        }
+        // the changes reach the watches in order, so the failed watch would see the update first
+        eventService.watch(1L, 1L, event -> watched.countDown());
+        eventService.update(testEvent);
+
+        // assert
+        assertThat(startupInProgress, is(true));
+        assertThat(watched.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(failedWatchEvents.isEmpty(), is(true));
+        eventService.cleanupResources();
+    }
+
+    @Test
+    public void readFromShards() {
+        // arrange
+        final SimpleController<Serializable> shard0Mock = mock(SimpleController.class);
+        final SimpleController<Serializable> shard1Mock = mock(SimpleController.class);
+        final EventRepository repository0Mock = mock(EventRepository.class);
+        final EventRepository repository1Mock = mock(EventRepository.class);
+        when(shard0Mock.readOnly()).thenReturn(repository0Mock);
+        when(shard1Mock.readOnly()).thenReturn(repository1Mock);
+        when(repository0Mock.readShards()).thenReturn(2);
+        when(repository1Mock.readShards()).thenReturn(2);
+        final Event event1 = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        final Event event2 = event1.toBuilder().eventId(2L).date(LocalDate.of(2099, Month.JANUARY, 1)).build();
+        when(repository0Mock.read()).thenReturn(Collections.singletonList(event1));
+        when(repository1Mock.read()).thenReturn(Collections.singletonList(event2));
+        when(repository1Mock.read(2L)).thenReturn(Optional.of(event2));
+        when(repository0Mock.readModification()).thenReturn(3L);
+        when(repository1Mock.readModification()).thenReturn(4L);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(shard0Mock);
+        when(PersistenceManager.createSimpleController(any(), eq("shard-1"), any())).thenReturn(shard1Mock);
+        System.setProperty(EventService.SHARDS_PROPERTY, "2");
+        final EventService eventService = new EventService();
+        try {
+            eventService.setupResources();
+        } finally {
+            System.clearProperty(EventService.SHARDS_PROPERTY);
+        }
+
+        // act
+        final List<Event> events = eventService.read();
+        final Optional<Event> event = eventService.read(2L);
+        final long modification = eventService.readModification();
+
+        // assert
+        assertThat(events, contains(event2, event1));
+        assertThat(event, is(Optional.of(event2)));
+        assertThat(modification, is(7L));
+    }
+
+    @Test
+    public void loadShardedStoreWithoutShards() {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(2);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
+        final EventService eventService = new EventService();
+
+        // act
+        Throwable failure = null;
+        try {
+            eventService.setupResources();
+        } catch (final RuntimeException e) {
+            failure = e.getCause();
+        }
+
+        // assert
+        assertThat(failure, instanceOf(IllegalStateException.class));
+        verify(simpleControllerMock, times(1)).close();
     }
 
     @Test
@@ -71,6 +325,7 @@ public class EventServiceTest {
         final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
         final EventRepository eventRepositoryMock = mock(EventRepository.class);
         when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
         mockStatic(PersistenceManager.class);
         when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
         final EventService eventService = new EventService();
@@ -80,16 +335,78 @@ public class EventServiceTest {
         eventService.read();
 
         // assert
-        verify(simpleControllerMock, times(1)).readOnly();
+        verify(simpleControllerMock, times(2)).readOnly(); // the shard check while loading and the read
         verify(eventRepositoryMock, times(1)).read();
     }
 
+    @Test
+    public void readFirstPage() {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
+        final EventService eventService = new EventService();
+        eventService.setupResources();
+
+        // act
+        eventService.read(EventFilter.NONE, 10);
+
+        // assert
+        verify(simpleControllerMock, times(2)).readOnly(); // the shard check while loading and the read
+        verify(eventRepositoryMock, times(1)).read(EventFilter.NONE, 10);
+    }
+
+    @Test
+    public void readPageAfterCursor() {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
+        final EventService eventService = new EventService();
+        eventService.setupResources();
+        final EventCursor cursor = new EventCursor(LocalDate.of(2099, Month.DECEMBER, 31), LocalTime.of(22, 0), 1L);
+
+        // act
+        eventService.read(EventFilter.NONE, cursor, 10);
+
+        // assert
+        verify(simpleControllerMock, times(2)).readOnly(); // the shard check while loading and the read
+        verify(eventRepositoryMock, times(1)).read(EventFilter.NONE, cursor, 10);
+    }
+
+    @Test
+    public void stream() {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
+        final EventService eventService = new EventService();
+        eventService.setupResources();
+
+        // act
+        eventService.stream(EventFilter.NONE);
+
+        // assert
+        verify(simpleControllerMock, times(2)).readOnly(); // the shard check while loading and the read
+        verify(eventRepositoryMock, times(1)).stream(EventFilter.NONE);
+    }
+
     @Test
     public void readOne() {
         // arrange
         final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
         final EventRepository eventRepositoryMock = mock(EventRepository.class);
         when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
         mockStatic(PersistenceManager.class);
         when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
         final EventService eventService = new EventService();
@@ -99,7 +416,7 @@ public class EventServiceTest {
         eventService.read(1L);
 
         // assert
-        verify(simpleControllerMock, times(1)).readOnly();
+        verify(simpleControllerMock, times(2)).readOnly(); // the shard check while loading and the read
         verify(eventRepositoryMock, times(1)).read(1L);
     }
 
@@ -107,6 +424,9 @@ public class EventServiceTest {
     public void update() {
         // arrange
         final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
         mockStatic(PersistenceManager.class);
         when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
         final EventService eventService = new EventService();
@@ -119,27 +439,121 @@ public class EventServiceTest {
                 .time(LocalTime.of(22, 0))
                 .build();
 
+        final Event updatedEvent = testEvent.toBuilder().version(2L).build();
+        when(simpleControllerMock.executeAndQuery(anyObject()))
+                .thenReturn(Collections.singletonList(EventOperationResult.ok(updatedEvent)));
+
         // act
-        eventService.update(testEvent);
+        final EventOperationResult result = eventService.update(testEvent);
 
         // assert
         verify(simpleControllerMock, times(1)).executeAndQuery(anyObject());
+        assertThat(result.getOutcome(), is(EventOperationResult.Outcome.OK));
+        assertThat(result.getEvent(), is(updatedEvent));
+    }
+
+    @Test
+    public void updateWithConflict() {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
+        final EventService eventService = new EventService();
+        eventService.setupResources();
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        when(simpleControllerMock.executeAndQuery(anyObject()))
+                .thenReturn(Collections.singletonList(EventOperationResult.conflict()));
+
+        // act
+        final EventOperationResult result = eventService.update(testEvent);
+
+        // assert
+        assertThat(result.getOutcome(), is(EventOperationResult.Outcome.CONFLICT));
+    }
+
+    @Test
+    public void updateNonExistingEvent() {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
+        final EventService eventService = new EventService();
+        eventService.setupResources();
+        final Event testEvent = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .build();
+        when(simpleControllerMock.executeAndQuery(anyObject()))
+                .thenReturn(Collections.singletonList(EventOperationResult.notFound()));
+
+        // act
+        final EventOperationResult result = eventService.update(testEvent);
+
+        // assert
+        assertThat(result.getOutcome(), is(EventOperationResult.Outcome.NOT_FOUND));
     }
 
     @Test
     public void delete() {
         // arrange
         final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
+        mockStatic(PersistenceManager.class);
+        when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
+        final EventService eventService = new EventService();
+        eventService.setupResources();
+
+        when(simpleControllerMock.executeAndQuery(anyObject()))
+                .thenReturn(Collections.singletonList(EventOperationResult.notFound()));
+
+        // act
+        final EventOperationResult result = eventService.delete(1L);
+
+        // assert
+        verify(simpleControllerMock, times(1)).executeAndQuery(anyObject());
+        assertThat(result.getOutcome(), is(EventOperationResult.Outcome.NOT_FOUND));
+    }
+
+    @Test
+    public void apply() {
+        // arrange
+        final SimpleController<Serializable> simpleControllerMock = mock(SimpleController.class);
+        final EventRepository eventRepositoryMock = mock(EventRepository.class);
+        when(simpleControllerMock.readOnly()).thenReturn(eventRepositoryMock);
+        when(eventRepositoryMock.readShards()).thenReturn(1);
         mockStatic(PersistenceManager.class);
         when(PersistenceManager.createSimpleController(any(), any())).thenReturn(simpleControllerMock);
         final EventService eventService = new EventService();
         eventService.setupResources();
+        final EventOperation operation = EventOperation.builder()
+                .type(EventOperation.Type.DELETE)
+                .eventId(1L)
+                .build();
+        when(simpleControllerMock.executeAndQuery(anyObject()))
+                .thenReturn(Collections.singletonList(EventOperationResult.notFound()));
 
         // act
-        eventService.delete(1L);
+        eventService.apply(Collections.singletonList(operation));
 
         // assert
-        verify(simpleControllerMock, times(1)).execute(any(VoidCommand.class));
+        verify(simpleControllerMock, times(1)).executeAndQuery(anyObject());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EventTableTest {
+
+    @Test
+    public void putGetAndRemove() {
+        // arrange
+        final EventTable eventTable = new EventTable(1, 1);
+        final Event event = Event.builder().eventId(10_000L).title("Testevent").build();
+
+        // act
+        final Event previousEvent = eventTable.put(event);
+        final Event readEvent = eventTable.get(10_000L);
+        final Event removedEvent = eventTable.remove(10_000L);
+
+        // assert
+        assertThat(previousEvent, is(nullValue()));
+        assertThat(readEvent, is(event));
+        assertThat(removedEvent, is(event));
+        assertThat(eventTable.get(10_000L), is(nullValue()));
+        assertThat(eventTable.remove(10_000L), is(nullValue()));
+    }
+
+    @Test
+    public void idsOfOtherShards() {
+        // arrange
+        final EventTable eventTable = new EventTable(2, 3);
+        final Event event = Event.builder().eventId(5L).title("Testevent").build();
+
+        // act
+        eventTable.put(event);
+
+        // assert
+        assertThat(eventTable.get(5L), is(event));
+        assertThat(eventTable.get(4L), is(nullValue()));
+        assertThat(eventTable.get(-1L), is(nullValue()));
+        assertThat(eventTable.get(Long.MAX_VALUE), is(nullValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putIdOfOtherShard() {
+        // arrange
+        final EventTable eventTable = new EventTable(2, 3);
+
+        // act
+        eventTable.put(Event.builder().eventId(3L).title("Testevent").build());
+
+        // assert
+    }
+}
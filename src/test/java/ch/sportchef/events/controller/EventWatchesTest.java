@@ -0,0 +1,96 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import ch.sportchef.events.entity.Event;
+import ch.sportchef.events.entity.EventChange;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class EventWatchesTest {
+
+    private final EventWatches watches = new EventWatches();
+
+    private final Event testEvent = Event.builder()
+            .eventId(1L)
+            .title("Testevent")
+            .location("Testlocation")
+            .date(LocalDate.of(2099, Month.DECEMBER, 31))
+            .time(LocalTime.of(22, 0))
+            .version(1L)
+            .build();
+
+    @Test
+    public void newerVersion() {
+        // arrange
+        final List<Optional<Event>> received = new ArrayList<>();
+        watches.add(1L, 1L, received::add);
+        final Event updatedEvent = testEvent.toBuilder().version(2L).build();
+
+        // act
+        watches.changed(new EventChange(1, EventChange.Type.UPDATED, testEvent));
+        watches.changed(new EventChange(2, EventChange.Type.UPDATED, updatedEvent));
+        watches.changed(new EventChange(3, EventChange.Type.UPDATED, updatedEvent.toBuilder().version(3L).build()));
+
+        // assert
+        assertThat(received, is(singletonList(Optional.of(updatedEvent))));
+        assertThat(watches.size(), is(0));
+    }
+
+    @Test
+    public void deleted() {
+        // arrange
+        final List<Optional<Event>> received = new ArrayList<>();
+        watches.add(1L, 1L, received::add);
+        watches.add(2L, 1L, received::add);
+
+        // act
+        watches.changed(new EventChange(1, EventChange.Type.DELETED, testEvent));
+
+        // assert
+        assertThat(received, is(singletonList(Optional.empty())));
+        assertThat(watches.size(), is(1));
+    }
+
+    @Test
+    public void cancelled() {
+        // arrange
+        final List<Optional<Event>> received = new ArrayList<>();
+        final EventWatch watch = watches.add(1L, 0L, received::add);
+
+        // act
+        watch.cancel();
+        watches.changed(new EventChange(1, EventChange.Type.UPDATED, testEvent));
+
+        // assert
+        assertThat(received, is(empty()));
+        assertThat(watches.size(), is(0));
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.controller;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class GroupCommitterTest {
+
+    @Test
+    public void commitSingleOperation() throws ExecutionException, InterruptedException {
+        // arrange
+        try (GroupCommitter<Integer, String> groupCommitter =
+                     new GroupCommitter<>("test", operations -> operations.stream().map(String::valueOf).collect(toList()), 0)) {
+
+            // act
+            final String result = groupCommitter.submit(42).get();
+
+            // assert
+            assertThat(result, is("42"));
+        }
+    }
+
+    @Test
+    public void commitQueuedOperationsTogether() throws ExecutionException, InterruptedException {
+        // arrange
+        final CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+        final List<List<Integer>> groups = new CopyOnWriteArrayList<>();
+        final Function<List<Integer>, List<Integer>> commit = operations -> {
+            groups.add(operations);
+            firstCommitStarted.countDown();
+            await(releaseFirstCommit);
+            return operations.stream().map(operation -> operation * 2).collect(toList());
+        };
+        try (GroupCommitter<Integer, Integer> groupCommitter = new GroupCommitter<>("test", commit, 0)) {
+            final CompletableFuture<Integer> first = groupCommitter.submit(1);
+            await(firstCommitStarted);
+
+            // act
+            final CompletableFuture<Integer> second = groupCommitter.submit(2);
+            final CompletableFuture<Integer> third = groupCommitter.submit(3);
+            releaseFirstCommit.countDown();
+
+            // assert
+            assertThat(first.get(), is(2));
+            assertThat(second.get(), is(4));
+            assertThat(third.get(), is(6));
+            assertThat(groups, contains(contains(1), contains(2, 3)));
+        }
+    }
+
+    @Test
+    public void commitOperationsWithinWindowTogether() throws ExecutionException, InterruptedException {
+        // arrange
+        final List<List<Integer>> groups = new CopyOnWriteArrayList<>();
+        final Function<List<Integer>, List<Integer>> commit = operations -> {
+            groups.add(operations);
+            return operations;
+        };
+        try (GroupCommitter<Integer, Integer> groupCommitter = new GroupCommitter<>("test", commit, 200)) {
+
+            // act
+            final CompletableFuture<Integer> first = groupCommitter.submit(1);
+            final CompletableFuture<Integer> second = groupCommitter.submit(2);
+
+            // assert
+            assertThat(first.get(), is(1));
+            assertThat(second.get(), is(2));
+            assertThat(groups, contains(contains(1, 2)));
+        }
+    }
+
+    @Test
+    public void failAllOperationsOfFailedGroup() throws InterruptedException {
+        // arrange
+        final Function<List<Integer>, List<Integer>> commit = operations -> {
+            throw new IllegalArgumentException("Foobar");
+        };
+        try (GroupCommitter<Integer, Integer> groupCommitter = new GroupCommitter<>("test", commit, 0)) {
+
+            // act
+            final CompletableFuture<Integer> result = groupCommitter.submit(1);
+
+            // assert
+            try {
+                result.get();
+            } catch (final ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(IllegalArgumentException.class)));
+            }
+            assertThat(result.isCompletedExceptionally(), is(true));
+        }
+    }
+
+    @Test
+    public void keepCommittingAfterError() throws ExecutionException, InterruptedException {
+        // arrange
+        final Function<List<Integer>, List<Integer>> commit = operations -> {
+            if (operations.contains(1)) {
+                throw new AssertionError("Foobar");
+            }
+            return operations;
+        };
+        try (GroupCommitter<Integer, Integer> groupCommitter = new GroupCommitter<>("test", commit, 0)) {
+
+            // act
+            final CompletableFuture<Integer> failed = groupCommitter.submit(1);
+            try {
+                failed.get(10, TimeUnit.SECONDS);
+            } catch (final ExecutionException | TimeoutException e) {
+                assertThat(e.getCause(), is(instanceOf(AssertionError.class)));
+            }
+            final Integer result = groupCommitter.submit(2).get();
+
+            // assert
+            assertThat(failed.isCompletedExceptionally(), is(true));
+            assertThat(result, is(2));
+        }
+    }
+
+    @Test
+    public void submitAfterClose() {
+        // arrange
+        final GroupCommitter<Integer, Integer> groupCommitter = new GroupCommitter<>("test", operations -> operations, 0);
+        groupCommitter.close();
+
+        // act
+        final CompletableFuture<Integer> result = groupCommitter.submit(1);
+
+        // assert
+        assertThat(result.isCompletedExceptionally(), is(true));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS), is(true));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * SportChef – Sports Competition Management Software
+ * Copyright (C) 2016 Marcus Fihlon
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.sportchef.events.entity;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EventCodecTest {
+
+    private Event roundTrip(final Event event) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            EventCodec.write(out, event);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return EventCodec.read(in);
+        }
+    }
+
+    @Test
+    public void roundTripCompleteEvent() throws IOException {
+        // arrange
+        final Event event = Event.builder()
+                .eventId(1L)
+                .title("Zürich Marathon")
+                .location("Zürich")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0, 30, 500))
+                .version(42L)
+                .build();
+
+        // act
+        final Event restoredEvent = roundTrip(event);
+
+        // assert
+        assertThat(restoredEvent, is(event));
+        assertThat(restoredEvent.getTime(), is(event.getTime()));
+        assertThat(restoredEvent.getVersion(), is(42L));
+    }
+
+    @Test
+    public void roundTripEmptyEvent() throws IOException {
+        // arrange
+        final Event event = Event.builder().build();
+
+        // act
+        final Event restoredEvent = roundTrip(event);
+
+        // assert
+        assertThat(restoredEvent, is(event));
+        assertThat(restoredEvent.getVersion(), is(nullValue()));
+    }
+
+    @Test
+    public void serializedEventIsCompact() throws IOException, ClassNotFoundException {
+        // arrange
+        final Event event = Event.builder()
+                .eventId(1L)
+                .title("Testevent")
+                .location("Testlocation")
+                .date(LocalDate.of(2099, Month.DECEMBER, 31))
+                .time(LocalTime.of(22, 0))
+                .version(1L)
+                .build();
+
+        // act
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+        final Event restoredEvent;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restoredEvent = (Event) in.readObject();
+        }
+
+        // assert
+        assertThat(restoredEvent, is(event));
+        assertThat(bytes.size(), is(lessThan(150)));
+    }
+
+}